@@ -5,7 +5,11 @@ import android.content.pm.PackageManager;
 import android.location.Location;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.support.v4.app.FragmentActivity;
+import android.util.Log;
+import android.view.Choreographer;
 import android.widget.Switch;
 import android.widget.ToggleButton;
 
@@ -18,13 +22,40 @@ import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapView;
 import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import edu.illinois.cs.cs125.spring2019.mp0.lib.ClassificationPipeline;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.ClusterPyramid;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.HistorySnapshot;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.LocationBuffer;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.LocationHistory;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.LocationQuadtree;
 import edu.illinois.cs.cs125.spring2019.mp0.lib.Locator;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.MarkerClassification;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.RandomWalk;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.SamplingScheduler;
+import edu.illinois.cs.cs125.spring2019.mp0.lib.TrackStatistics;
 
 /**
  * The main activity launched when your app runs.
@@ -101,11 +132,32 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
      * How often we request location updates, in ms.
      * <p>
      * See the description above about configuring our request to Google's location service. This constant specifies
-     * how often we request updates: in this case, as quickly as every 5s. According to Android's documentation this
-     * is the fastest that apps should request which need continuous location information.
+     * how often we request updates while moving: in this case, as quickly as every 5s. According to Android's
+     * documentation this is the fastest that apps should request which need continuous location information.
      */
     private static final int LOCATION_REQUEST_RATE = 5000;
 
+    /**
+     * The slowest we request location updates, in ms.
+     * <p>
+     * While we aren't moving, locationSampling gradually slows our request down to this rate, since every update would
+     * just land on top of the last one.
+     */
+    private static final int LOCATION_MAX_REQUEST_RATE = 60000;
+
+    /**
+     * How many location updates we let Android save up before delivering them.
+     * <p>
+     * Every time Android delivers an update it has to wake up our app, which costs battery. Letting it save up this
+     * many updates and deliver them together in one batch means far fewer wakeups, and we still get every location.
+     * The tradeoff is that the map can lag behind by this many updates. Our longest wait is this many times our
+     * current update interval, so batching keeps working when locationSampling slows our updates down.
+     */
+    private static final int LOCATION_BATCH_SIZE = 6;
+
+    /** Nanoseconds in one millisecond, for converting the times that Android gives each location. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     /**
      * Callback run when new location updates are available.
      * <p>
@@ -119,6 +171,55 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
      */
     private LocationCallback locationCallback;
 
+    /**
+     * Background thread that our location callback runs on.
+     * <p>
+     * If we asked Android to run the callback on the main thread, every location update would have to wait its turn
+     * behind drawing the map, and a burst of updates would hold up drawing in turn. So the callback runs here instead,
+     * and all it does is drop each new location into locationBuffer.
+     */
+    private HandlerThread locationThread;
+
+    /** How many locations can wait in locationBuffer before the oldest ones are dropped. */
+    private static final int LOCATION_BUFFER_SIZE = 64;
+
+    /**
+     * Locations that have arrived on the background thread but that the main thread hasn't processed yet.
+     * <p>
+     * The main thread empties it once per frame of the display, so if several locations arrive between two frames we
+     * process them all together and only redraw once. It also counts how many locations were handled that way, and
+     * how many were dropped because the main thread fell too far behind.
+     */
+    private LocationBuffer locationBuffer = new LocationBuffer(LOCATION_BUFFER_SIZE);
+
+    /** Reused to hold the latitudes taken out of locationBuffer. */
+    private double[] bufferedLatitudes = new double[LOCATION_BUFFER_SIZE];
+
+    /** Reused to hold the longitudes taken out of locationBuffer. */
+    private double[] bufferedLongitudes = new double[LOCATION_BUFFER_SIZE];
+
+    /** Reused to hold the times taken out of locationBuffer. */
+    private long[] bufferedTimes = new long[LOCATION_BUFFER_SIZE];
+
+    /** How many dropped locations we had already logged about, so debug builds only log when more are dropped. */
+    private long loggedDroppedLocations = 0;
+
+    /**
+     * Runs just before the display draws its next frame, and processes the locations waiting in locationBuffer.
+     * <p>
+     * Android's Choreographer calls it on the main thread in step with the display, which is the latest moment we can
+     * update the map and still have the change show up in that frame.
+     */
+    private Choreographer.FrameCallback locationFrameCallback = frameTimeNanos -> processBufferedLocations();
+
+    /**
+     * Whether this activity has been destroyed.
+     * <p>
+     * The location thread may still have asked for a frame callback just before we were destroyed, for example when
+     * the phone is rotated, so callbacks check this before touching anything we've already shut down.
+     */
+    private boolean destroyed = false;
+
     /**
      * Size of our location array.
      * <p>
@@ -127,33 +228,201 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
     private static final int LOCATION_ARRAY_SIZE = 720;
 
     /**
-     * Array of longitude measurements.
+     * How close, in meters, a new location has to be to a saved one for us to count it as a place we've been before.
+     * <p>
+     * GPS measurements jitter by a few meters even when you are standing still, so two measurements taken at the same
+     * spot almost never have exactly the same latitude and longitude.
+     */
+    private static final double REVISIT_TOLERANCE_METERS = 10.0;
+
+    /**
+     * Our saved location measurements.
      * <p>
-     * There are better ways to store data like this, which we'll learn about shortly. But for MP0 we store pairs of
-     * latitude and longitude returned by the location service in two separate arrays: one for longitude and the
-     * second for latitude. Each pair of measurements is store at the same index is both arrays.
+     * There are better ways to store data like this, which we'll learn about shortly. But the Locator functions that
+     * you write for MP0 work on pairs of latitude and longitude measurements stored in two separate arrays: one for
+     * latitude and the second for longitude. Each pair of measurements is stored at the same index in both arrays.
      * <p>
-     * We also maintain a separate array of booleans indicating which location measurements are valid. Until we store
-     * LOCATION_ARRAY_SIZE measurements, some values in the array contain invalid values. So we use the array of
-     * booleans to determine which spots in the latitude and longitude arrays contain value positions.
+     * LocationHistory keeps those arrays for us, along with a separate array of booleans indicating which location
+     * measurements are valid. Until we store LOCATION_ARRAY_SIZE measurements, some values in the arrays contain
+     * invalid values. Once the arrays are full each new measurement overwrites the oldest one, so the history always
+     * contains the most recent LOCATION_ARRAY_SIZE locations.
      */
-    private double[] longitudes = new double[LOCATION_ARRAY_SIZE];
+    private LocationHistory locationHistory = new LocationHistory(LOCATION_ARRAY_SIZE);
+
+    /**
+     * Finds the saved locations inside the part of the map that is currently on screen.
+     * <p>
+     * Adding a marker to the map is slow, and there's no point adding markers that nobody can see. So whenever the
+     * user finishes moving the map we use this to look up just the locations inside the visible part of it, and only
+     * show markers for those.
+     */
+    private LocationQuadtree locationQuadtree = new LocationQuadtree(LOCATION_ARRAY_SIZE);
+
+    /**
+     * Groups nearby saved locations into clusters, at every zoom level at once.
+     * <p>
+     * Once we've saved a lot of locations, a marker for every one of them clutters up the map and is slow to draw.
+     * So we only give our special locations (the furthest north, the latest, and ones we've been near before) their
+     * own markers, and draw everything else as one marker per cluster. Zooming in splits clusters into smaller ones.
+     * Like our other helpers, this listens to our location history and updates its clusters as each location arrives
+     * rather than regrouping everything.
+     */
+    private ClusterPyramid clusterPyramid = new ClusterPyramid(LOCATION_ARRAY_SIZE);
+
+    /**
+     * How many more cluster levels than the map's zoom level we use.
+     * <p>
+     * Each extra level halves the width of a cluster, so 2 makes each cluster a quarter of a map tile wide.
+     */
+    private static final int CLUSTER_LEVEL_OFFSET = 2;
+
+    /** The cluster level we are currently showing, or -1 if we haven't shown any clusters yet. */
+    private int clusterLevel = -1;
+
+    /** The marker for each cluster at the current level, or null if we haven't needed one yet. */
+    private Marker[] clusterMarkers = new Marker[LOCATION_ARRAY_SIZE];
+
+    /** Whether the marker for each cluster is currently showing on the map. */
+    private boolean[] showingClusters = new boolean[LOCATION_ARRAY_SIZE];
+
+    /** Reused to hold the clusters that need to be redrawn. */
+    private int[] changedClusters = new int[LOCATION_ARRAY_SIZE];
+
+    /**
+     * Keeps running totals for our recent trip, like how far we've gone and how fast.
+     * <p>
+     * It covers the same LOCATION_ARRAY_SIZE locations as our history, and updates its totals as each location
+     * arrives and the oldest one drops out, so we never have to add up the whole trip again.
+     */
+    private TrackStatistics trackStatistics = new TrackStatistics(LOCATION_ARRAY_SIZE);
+
+    /**
+     * Name of the file in our app's private storage where we save our location history.
+     * <p>
+     * Android can destroy our activity at any time, for example when the phone is rotated or when it needs memory
+     * for another app. So we save a snapshot of our history whenever we go into the background and load it again
+     * when we start, instead of starting over with an empty map.
+     */
+    private static final String HISTORY_SNAPSHOT_FILE = "history.bin";
+
+    /**
+     * Thread that reads and writes our history snapshot.
+     * <p>
+     * It's shared by every instance of this activity, so when the phone is rotated the new activity's read waits
+     * for the old activity's write to finish.
+     */
+    private static final ExecutorService SNAPSHOT_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /**
+     * How long onCreate will wait for our saved history to load before giving up and starting with an empty map.
+     * <p>
+     * Android reports an app as not responding if the main thread is blocked for five seconds, so this needs to be
+     * well under that.
+     */
+    private static final long SNAPSHOT_RESTORE_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * Decides how often to request real location updates, based on how fast we've been moving.
+     * <p>
+     * Once a few updates in a row have landed within REVISIT_TOLERANCE_METERS of each other it slows our request
+     * down, and as soon as we start moving it speeds it up again, so we aren't saving and drawing the same spot over
+     * and over while sitting still.
+     */
+    private SamplingScheduler locationSampling =
+        new SamplingScheduler(LOCATION_REQUEST_RATE, LOCATION_MAX_REQUEST_RATE, REVISIT_TOLERANCE_METERS);
+
+    /** Decides how often to wander to a new location, the same way locationSampling does for real updates. */
+    private SamplingScheduler wanderingSampling =
+        new SamplingScheduler(WANDERING_RATE, WANDERING_MAX_RATE, REVISIT_TOLERANCE_METERS);
+
+    /**
+     * Background thread that works out what color each marker should be.
+     * <p>
+     * Android only lets us change the user interface from one thread, the main thread, which also handles every tap
+     * and draws every frame. Anything slow we do there makes the app stutter. So we do the work of deciding which
+     * location is furthest north and which ones we've been near before on this separate thread instead.
+     */
+    private ExecutorService classificationExecutor;
+
+    /**
+     * Sends each new location to the background thread and hands us back the marker colors once they are ready.
+     * <p>
+     * It keeps its own copy of our saved locations, along with the helpers that find the furthest north location and
+     * the locations we've been near before, so the background thread never touches anything the main thread uses. If
+     * another location arrives before a result is ready, that result is out of date and is simply thrown away.
+     */
+    private ClassificationPipeline classificationPipeline;
+
+    /**
+     * The most recent result from the background thread, or null if there hasn't been one yet.
+     * <p>
+     * The pipeline reuses its frames, so this is only valid until the next one arrives, which replaces it.
+     */
+    private ClassificationPipeline.Frame latestFrame = null;
+
+    /**
+     * The color class that each marker was last drawn with.
+     * <p>
+     * Almost every marker looks exactly the same after a new location arrives. So rather than clearing the map and
+     * adding every marker again, we keep one marker for each saved location, compare each new result with what we
+     * drew last time, and only move or recolor the markers that changed.
+     */
+    private int[] drawnClasses = new int[LOCATION_ARRAY_SIZE];
+
+    /** The latitude that each marker was last drawn at. */
+    private double[] drawnLatitudes = new double[LOCATION_ARRAY_SIZE];
+
+    /** The longitude that each marker was last drawn at. */
+    private double[] drawnLongitudes = new double[LOCATION_ARRAY_SIZE];
 
-    /** Array of latitude measurements. */
-    private double[] latitudes = new double[LOCATION_ARRAY_SIZE];
+    /** The marker for each saved location, or null if we haven't needed one yet. */
+    private Marker[] markers = new Marker[LOCATION_ARRAY_SIZE];
 
-    /** Array to save whether the location at an index is valid or not. */
-    private boolean[] validLocations = new boolean[LOCATION_ARRAY_SIZE];
+    /**
+     * The icon for each color class of marker, created once the map is ready.
+     * <p>
+     * We only ever use four colors, and every call to BitmapDescriptorFactory creates a new icon. So rather than
+     * asking for an icon each time a marker changes, we create one per color up front and reuse them.
+     */
+    private BitmapDescriptor[] markerIcons;
+
+    /**
+     * How many marker icons we have created so far.
+     * <p>
+     * Every icon is created by newMarkerIcon, which counts it here, so nothing can create one without being noticed.
+     */
+    private int markerIconsCreated = 0;
 
     /**
-     * Index of our current location measurement in our array.
+     * How many marker icons were created during the most recent pass over the markers.
      * <p>
-     * We increment this each time <i>before</i> we add a location measurement to our arrays. That way, in between
-     * new measurements it still stores the position of the last measurement that we saved. Starting it at -1 means
-     * that after we increment it for the first time it will be 0, which is the right spot in the index for the first
-     * measurement.
+     * Only kept up to date in debug builds. Every icon should come from the ones we created when the map was ready,
+     * so this should always be zero.
      */
-    private int currentLocationIndex = -1;
+    private int markerIconsCreatedLastDraw = 0;
+
+    /** Whether the marker for each saved location is currently showing on the map. */
+    private boolean[] showingMarkers = new boolean[LOCATION_ARRAY_SIZE];
+
+    /**
+     * Reused to hold the locations that are currently on screen, so that drawing markers doesn't create a new array.
+     */
+    private int[] visibleLocations = new int[LOCATION_ARRAY_SIZE];
+
+    /** Reused to record which locations are currently on screen. */
+    private boolean[] onScreen = new boolean[LOCATION_ARRAY_SIZE];
+
+    /** Southern edge of the visible part of the map, as of the last time it stopped moving. */
+    private double visibleSouth = Locator.MIN_LATITUDE;
+
+    /** Western edge of the visible part of the map, which is east of the eastern edge if it spans 180 degrees. */
+    private double visibleWest = Locator.MIN_LONGITUDE;
+
+    /** Northern edge of the visible part of the map. */
+    private double visibleNorth = Locator.MAX_LATITUDE;
+
+    /** Eastern edge of the visible part of the map. */
+    private double visibleEast = Locator.MAX_LONGITUDE;
 
     /**
      * Whether we've received any location updates at all.
@@ -199,6 +468,9 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
      */
     private static final int WANDERING_RATE = 1000;
 
+    /** The slowest rate at which we wander to new locations, reached once wandering stays in one place. */
+    private static final int WANDERING_MAX_RATE = 8000;
+
     /**
      * Maximum distance (in decimal degrees) to wander at each step for latitude.
      * <p>
@@ -209,11 +481,13 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
      * Note that because longitude is between -180 and 180, we set the maximum wander for longitude to be twice that
      * of latitude. Around the University of Illinois that still doesn't work out to be equal in both directions, and
      * you might want to explore why...
+     * <p>
+     * The value comes from RandomWalk, which simulates this same walk, so the two always agree.
      */
-    private static final double MAX_LATITUDE_WANDERING_DISTANCE = 0.001;
+    private static final double MAX_LATITUDE_WANDERING_DISTANCE = RandomWalk.DEFAULT_MAX_LATITUDE_CHANGE;
 
     /** Maximum distance (in decimal degrees) to wander at each step for longitude. */
-    private static final double MAX_LONGITUDE_WANDERING_DISTANCE = 0.002;
+    private static final double MAX_LONGITUDE_WANDERING_DISTANCE = RandomWalk.DEFAULT_MAX_LONGITUDE_CHANGE;
 
     /**
      * A random number generator to use when wandering.
@@ -279,6 +553,31 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
 
         handler = new Handler();
 
+        /*
+         * Start the background thread that receives our location updates.
+         */
+        locationThread = new HandlerThread("MP0:Location");
+        locationThread.start();
+
+        /*
+         * Ask our location history to keep the helpers that classify our saved locations up to date.
+         */
+        locationHistory.addListener(locationQuadtree);
+        locationHistory.addListener(clusterPyramid);
+
+        /*
+         * Start the background thread that decides how to color our markers. Results are passed back to the main
+         * thread using our handler.
+         */
+        classificationExecutor = Executors.newSingleThreadExecutor();
+        classificationPipeline = new ClassificationPipeline(LOCATION_ARRAY_SIZE, REVISIT_TOLERANCE_METERS,
+            classificationExecutor, handler::post, this::onClassification);
+
+        /*
+         * Load the locations we saved last time, so they're ready before we draw anything.
+         */
+        restoreHistory();
+
         /*
          * Determine if we've been granted fine-grained location permissions. If not, trigger the permissions dialog
          * again.
@@ -337,6 +636,7 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
         locationRequest = new LocationRequest()
             .setInterval(LOCATION_REQUEST_RATE)
             .setFastestInterval(LOCATION_REQUEST_RATE)
+            .setMaxWaitTime(LOCATION_REQUEST_RATE * LOCATION_BATCH_SIZE)
             .setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
 
         /*
@@ -349,15 +649,25 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
             public void onLocationResult(final LocationResult locationResult) {
                 /*
                  * So this code runs every time we receive a location update. Like we do here, it's usually a good
-                 * idea to just pass the information you receive from a callback to your app by calling a function
-                 * that you have defined. Here we pass the new location information to processNewLocation, which
-                 * saves it in our array and updates the map as needed.
+                 * idea to just pass the information you receive from a callback to the rest of your app and return.
+                 *
+                 * Android may save up several locations and deliver them together, so we go through all of them
+                 * rather than just the last one. This runs on our background location thread, which isn't allowed
+                 * to touch the map. So we add the new locations to our buffer, and if it was empty, ask the main
+                 * thread to process them before drawing its next frame. If it wasn't empty that's already been
+                 * arranged.
                  */
                 if (locationResult == null) {
                     return;
                 }
-                Location lastLocation = locationResult.getLastLocation();
-                processNewLocation(lastLocation.getLatitude(), lastLocation.getLongitude());
+                boolean scheduleFrame = false;
+                for (Location location : locationResult.getLocations()) {
+                    scheduleFrame |= locationBuffer.offer(location.getLatitude(), location.getLongitude(),
+                        location.getElapsedRealtimeNanos() / NANOS_PER_MILLI);
+                }
+                if (scheduleFrame) {
+                    handler.post(() -> Choreographer.getInstance().postFrameCallback(locationFrameCallback));
+                }
             }
         };
 
@@ -374,11 +684,11 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
         /*
          * Finally we also set up a callback function to be run repeatedly when location wandering is enabled. All
          * this does is call wanderToNewLocation to actual implement the wandering and then reschedule itself to run
-         * 1000ms (1s) later.
+         * 1000ms (1s) later, or later than that if our wandering hasn't been getting anywhere.
          */
         wanderRunnable = () -> {
             wanderToNewLocation();
-            handler.postDelayed(wanderRunnable, WANDERING_RATE);
+            handler.postDelayed(wanderRunnable, wanderingSampling.getIntervalMillis());
         };
     }
 
@@ -403,7 +713,9 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
     }
 
     /**
-     * When the app goes to the background we disable location tracking.
+     * When the app goes to the background we disable location tracking and save our history.
+     * <p>
+     * Debug builds also log a summary of our trip here, rather than after every update.
      */
     @Override
     protected void onPause() {
@@ -412,6 +724,12 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
             mapView.onPause();
         }
         enableOrDisableLocation(false);
+        saveHistory();
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Traveled " + Math.round(trackStatistics.getTotalDistanceMeters()) + " m at "
+                + trackStatistics.getAverageSpeedMetersPerSecond() + " m/s, longest step "
+                + Math.round(trackStatistics.getMaxStepMeters()) + " m");
+        }
     }
 
     @Override
@@ -420,6 +738,22 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
         if (mapView != null) {
             mapView.onDestroy();
         }
+        /*
+         * Close the pipeline before shutting down its thread, so that nothing new is handed to the thread and results
+         * it is still working on are thrown away instead of reaching this destroyed activity.
+         */
+        classificationPipeline.close();
+        classificationExecutor.shutdown();
+        locationThread.quitSafely();
+
+        /*
+         * Cancel anything still waiting to run on the main thread: frame callbacks, the posts that schedule them,
+         * wandering, and results from the pipeline. A location arriving right now could still schedule a new one,
+         * which is why processBufferedLocations also checks destroyed.
+         */
+        destroyed = true;
+        Choreographer.getInstance().removeFrameCallback(locationFrameCallback);
+        handler.removeCallbacksAndMessages(null);
     }
 
     /**
@@ -434,17 +768,16 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
     private void enableOrDisableLocation(final boolean enable) {
         locationEnabled = enable;
         if (locationEnabled) {
+            /*
+             * Start out at our fastest rate, since we don't know whether we've moved while tracking was off.
+             */
+            locationSampling.reset();
+            wanderingSampling.reset();
             if (wandering) {
                 handler.post(wanderRunnable);
                 fusedLocationProviderClient.removeLocationUpdates(locationCallback);
             } else {
-                if (canAccessFineLocation) {
-                    try {
-                        fusedLocationProviderClient.requestLocationUpdates(locationRequest, locationCallback, null);
-                    } catch (SecurityException unused) {
-                        canAccessFineLocation = false;
-                    }
-                }
+                requestLocationUpdates();
                 handler.removeCallbacks(wanderRunnable);
             }
         } else {
@@ -453,35 +786,252 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
         }
     }
 
+    /**
+     * Ask the location service for updates at the rate locationSampling has chosen.
+     * <p>
+     * Requesting updates again with the same callback replaces our earlier request, so this is also how we change the
+     * rate while tracking.
+     */
+    private void requestLocationUpdates() {
+        if (!canAccessFineLocation) {
+            return;
+        }
+        locationRequest
+            .setInterval(locationSampling.getIntervalMillis())
+            .setFastestInterval(locationSampling.getIntervalMillis())
+            .setMaxWaitTime(locationSampling.getIntervalMillis() * LOCATION_BATCH_SIZE);
+        try {
+            fusedLocationProviderClient.requestLocationUpdates(locationRequest, locationCallback,
+                locationThread.getLooper());
+        } catch (SecurityException unused) {
+            canAccessFineLocation = false;
+        }
+    }
+
+    /**
+     * Save a snapshot of our location history in the background.
+     * <p>
+     * The snapshot is made right away, since only the main thread may touch our history, but it's small enough that
+     * that's quick. Writing it to a file is slow, so that happens on SNAPSHOT_EXECUTOR.
+     */
+    private void saveHistory() {
+        ByteBuffer snapshot = HistorySnapshot.encode(locationHistory);
+        File directory = getFilesDir();
+        SNAPSHOT_EXECUTOR.execute(() -> writeSnapshot(directory, snapshot));
+    }
+
+    /**
+     * Write a history snapshot to our snapshot file.
+     * <p>
+     * We write to a temporary file first and then rename it, so if we're killed halfway through, the old snapshot is
+     * still there instead of half of a new one.
+     *
+     * @param directory the directory holding the snapshot file
+     * @param snapshot the snapshot to write
+     */
+    private static void writeSnapshot(final File directory, final ByteBuffer snapshot) {
+        File temporary = new File(directory, HISTORY_SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = new FileOutputStream(temporary).getChannel()) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Couldn't save location history", e);
+            return;
+        }
+        if (!temporary.renameTo(new File(directory, HISTORY_SNAPSHOT_FILE))) {
+            Log.w(TAG, "Couldn't replace saved location history");
+        }
+    }
+
+    /**
+     * Load the location history we saved last time, if there is one.
+     * <p>
+     * The file is memory-mapped rather than read into an array, so the snapshot is decoded straight from the file.
+     * The restored locations are added to our history and classified just like new ones, but they don't count
+     * towards our trip statistics, since we don't know when they were measured relative to this boot.
+     */
+    private void restoreHistory() {
+        File file = new File(getFilesDir(), HISTORY_SNAPSHOT_FILE);
+        double[] latitudes = new double[LOCATION_ARRAY_SIZE];
+        double[] longitudes = new double[LOCATION_ARRAY_SIZE];
+        /*
+         * We block the main thread here on purpose, since the history needs to be back before the map is first drawn.
+         * But the read still goes through SNAPSHOT_EXECUTOR instead of happening right here. If the previous activity
+         * was paused just before we were created, its save may still be waiting on that thread, and running the read
+         * there too means it always sees the finished file rather than an older one or none at all.
+         */
+        Future<Integer> restore = SNAPSHOT_EXECUTOR.submit(() -> {
+            if (!file.exists()) {
+                return 0;
+            }
+            try (FileChannel channel = new FileInputStream(file).getChannel()) {
+                return HistorySnapshot.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    latitudes, longitudes);
+            }
+        });
+        int count;
+        try {
+            count = restore.get(SNAPSHOT_RESTORE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            restore.cancel(true);
+            Log.w(TAG, "Gave up restoring location history after " + SNAPSHOT_RESTORE_TIMEOUT_MILLIS + " ms");
+            return;
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Couldn't restore location history", e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            locationHistory.append(latitudes[i], longitudes[i]);
+        }
+        classificationPipeline.submit(latitudes, longitudes, count);
+        receivedLocation = true;
+        Log.d(TAG, "Restored " + count + " saved locations");
+    }
+
     /**
      * Process a new location update.
      * <p>
-     * Here we save the new latitude and longitude to our arrays and update the map with markers indicating different
-     * characteristics of each location.
+     * Here we save the new latitude and longitude to our location history and update the map with markers indicating
+     * different characteristics of each location.
      *
      * @param latitude latitude of the new location
      * @param longitude longitude of the new location
      */
     public void processNewLocation(final double latitude, final double longitude) {
+        recordNewLocation(latitude, longitude, SystemClock.elapsedRealtime());
+        classificationPipeline.submit(latitude, longitude);
+        showNewLocations();
+    }
+
+    /**
+     * Process a batch of new location updates, oldest first.
+     * <p>
+     * This does the same thing as calling processNewLocation for each location, except that the markers are only
+     * worked out and redrawn once for the whole batch, since only the final result would ever be seen.
+     * <p>
+     * These locations don't come with their own times, but giving them all the current time would make them look
+     * like they were measured in the same instant, which would wreck our speed estimates. Instead we assume the
+     * newest one was measured now and the others one sampling interval apart before it, which is how a batch from
+     * the location service or from wandering is spaced.
+     *
+     * @param latitudes latitudes of the new locations
+     * @param longitudes longitudes of the new locations
+     */
+    public void processNewLocations(final double[] latitudes, final double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitude and longitude arrays must be the same length");
+        }
+        if (latitudes.length == 0) {
+            return;
+        }
         /*
-         * Update our index before saving a new value. Because we initialize it to -1 our first value goes in index 0
-         * which is what we want. Note that modular arithmetic ensures that the array index always stays within the
-         * bounds of the array.
+         * Work out the interval before saving anything, since saving these locations may change it.
          */
-        currentLocationIndex = (currentLocationIndex + 1) % LOCATION_ARRAY_SIZE;
+        long intervalMillis;
+        if (wandering) {
+            intervalMillis = wanderingSampling.getIntervalMillis();
+        } else {
+            intervalMillis = locationSampling.getIntervalMillis();
+        }
+        long newestMillis = SystemClock.elapsedRealtime();
+        for (int i = 0; i < latitudes.length; i++) {
+            recordNewLocation(latitudes[i], longitudes[i], newestMillis - (latitudes.length - 1 - i) * intervalMillis);
+        }
+        classificationPipeline.submit(latitudes, longitudes, latitudes.length);
+        showNewLocations();
+    }
+
+    /**
+     * Process a batch of new location updates that were measured at known times.
+     *
+     * @param latitudes latitudes of the new locations
+     * @param longitudes longitudes of the new locations
+     * @param times when each location was measured, in milliseconds since the phone started
+     * @param count the number of locations to take from the start of the arrays
+     */
+    private void processNewLocations(final double[] latitudes, final double[] longitudes, final long[] times,
+                                     final int count) {
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            recordNewLocation(latitudes[i], longitudes[i], times[i]);
+        }
+        classificationPipeline.submit(latitudes, longitudes, count);
+        showNewLocations();
+    }
+
+    /**
+     * Process the locations that arrived from the location service since the last frame.
+     * <p>
+     * Some of them may have arrived together in one batch, and others may have piled up because we were busy. Either
+     * way we save every one of them, but only update the map once.
+     */
+    private void processBufferedLocations() {
+        if (destroyed) {
+            return;
+        }
+        int count = locationBuffer.drain(bufferedLatitudes, bufferedLongitudes, bufferedTimes);
+        processNewLocations(bufferedLatitudes, bufferedLongitudes, bufferedTimes, count);
+        if (BuildConfig.DEBUG) {
+            long dropped = locationBuffer.getDropped();
+            if (dropped != loggedDroppedLocations) {
+                loggedDroppedLocations = dropped;
+                Log.d(TAG, "Processed " + count + " locations in one frame, " + locationBuffer.getCoalesced()
+                    + " coalesced and " + dropped + " dropped so far");
+            }
+        }
+    }
+
+    /**
+     * Save a new location, along with everything we keep track of about our saved locations except marker colors.
+     *
+     * @param latitude latitude of the new location
+     * @param longitude longitude of the new location
+     * @param timeMillis when the location was measured, in milliseconds since the phone started
+     */
+    private void recordNewLocation(final double latitude, final double longitude, final long timeMillis) {
+        /*
+         * Save the new value to our location history. It takes care of finding the right spot for it, wrapping around
+         * to overwrite the oldest location once it is full.
+         */
+        locationHistory.append(latitude, longitude);
+
+        /*
+         * Update our trip statistics too. The times we use come from SystemClock.elapsedRealtime, which keeps
+         * counting while the phone is asleep and never jumps backward when the wall clock is changed, so it's the
+         * right clock for measuring speed.
+         */
+        trackStatistics.append(latitude, longitude, timeMillis);
 
         /*
-         * Save the new value at the same index in both arrays, and mark this location as valid.
+         * Let whichever source this location came from adjust its rate. If the rate of real updates changed, we need
+         * to tell the location service. Wandering picks up its new rate the next time it reschedules itself.
          */
-        latitudes[currentLocationIndex] = latitude;
-        longitudes[currentLocationIndex] = longitude;
-        validLocations[currentLocationIndex] = true;
+        if (wandering) {
+            wanderingSampling.append(latitude, longitude, timeMillis);
+        } else if (locationSampling.append(latitude, longitude, timeMillis) && locationEnabled) {
+            Log.d(TAG, "Requesting locations every " + locationSampling.getIntervalMillis() + " ms");
+            requestLocationUpdates();
+        }
 
         /*
          * Mark that we've received a location update
          */
         receivedLocation = true;
+    }
 
+    /**
+     * Update the map after saving one or more new locations.
+     */
+    private void showNewLocations() {
         /*
          * If we don't have a map there's nothing else to do.
          */
@@ -490,36 +1040,342 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
         }
 
         /*
-         * If we do have a map, clear it and mark it as not centered, since it is likely that our new location will
-         * result in the map moving.
+         * If we do have a map, mark it as not centered, since it is likely that our new location will result in the
+         * map moving. Our clusters can be updated right away, but the rest of our markers are updated once the
+         * background thread has classified the new location.
          */
-        googleMap.clear();
         centered = false;
+        updateClusters();
+    }
 
+    /**
+     * Receive new marker colors from the background thread.
+     * <p>
+     * This runs on the main thread. If there's no map yet we just hold on to the result until there is.
+     *
+     * @param frame the colors and positions of every saved location
+     */
+    private void onClassification(final ClassificationPipeline.Frame frame) {
+        latestFrame = frame;
+        if (googleMap != null) {
+            updateMarkers();
+        }
+    }
+
+    /**
+     * Update the markers for the saved locations that changed since we last drew them.
+     * <p>
+     * A new location only changes a few markers: the one for the slot it overwrote, which moves, and the ones whose
+     * color changes, like the previous current location or locations near the new one. Comparing numbers is cheap,
+     * and touching just the markers that changed keeps the work the map has to do on each update small no matter how
+     * many locations we have saved.
+     */
+    private void updateMarkers() {
+        if (latestFrame == null) {
+            return;
+        }
+        int iconsCreatedBefore = markerIconsCreated;
+        for (int i = 0; i < LOCATION_ARRAY_SIZE; i++) {
+            boolean moved = Double.compare(latestFrame.latitude(i), drawnLatitudes[i]) != 0
+                || Double.compare(latestFrame.longitude(i), drawnLongitudes[i]) != 0;
+            if (!moved && latestFrame.classOf(i) == drawnClasses[i]) {
+                continue;
+            }
+            drawnClasses[i] = latestFrame.classOf(i);
+            drawnLatitudes[i] = latestFrame.latitude(i);
+            drawnLongitudes[i] = latestFrame.longitude(i);
+            if (!hasOwnMarker(i) || !isOnScreen(drawnLatitudes[i], drawnLongitudes[i])) {
+                hideMarker(i);
+            } else if (showingMarkers[i]) {
+                if (moved) {
+                    markers[i].setPosition(new LatLng(drawnLatitudes[i], drawnLongitudes[i]));
+                }
+                markers[i].setIcon(markerIcon(i));
+            } else {
+                showMarker(i);
+            }
+        }
+        recordMarkerIconsCreated(iconsCreatedBefore);
+    }
+
+    /**
+     * Show only the markers and clusters for the saved locations that are currently on screen.
+     * <p>
+     * This runs when the user finishes moving the map, since moving the map can bring locations that we skipped into
+     * view and move others out of it, and zooming changes how big our clusters should be.
+     */
+    private void showVisibleMarkers() {
         /*
-         * Mark various locations on the map. We use one color (green) for the furthest position north, a second
-         * color (blue) for any repeated locations, a third (red) for the latest location, and a fourth (orange) for
-         * other locations.
+         * Find the visible part of the map. If the map can't tell us what's visible yet, show everything.
          */
-        int furthestNorth = Locator.farthestNorth(latitudes, longitudes, validLocations);
+        LatLngBounds bounds = null;
+        if (googleMap.getProjection() != null && googleMap.getProjection().getVisibleRegion() != null) {
+            bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        }
+        if (bounds != null) {
+            visibleSouth = bounds.southwest.latitude;
+            visibleWest = bounds.southwest.longitude;
+            visibleNorth = bounds.northeast.latitude;
+            visibleEast = bounds.northeast.longitude;
+        } else {
+            visibleSouth = Locator.MIN_LATITUDE;
+            visibleWest = Locator.MIN_LONGITUDE;
+            visibleNorth = Locator.MAX_LATITUDE;
+            visibleEast = Locator.MAX_LONGITUDE;
+        }
+
+        /*
+         * Catch up on any changes we haven't drawn yet, then show the markers that came into view and hide the ones
+         * that left it.
+         */
+        updateMarkers();
+        int iconsCreatedBefore = markerIconsCreated;
+        int visibleCount = locationQuadtree.query(visibleSouth, visibleWest, visibleNorth, visibleEast,
+            visibleLocations);
+        Arrays.fill(onScreen, false);
+        for (int visible = 0; visible < visibleCount; visible++) {
+            onScreen[visibleLocations[visible]] = true;
+        }
         for (int i = 0; i < LOCATION_ARRAY_SIZE; i++) {
-            if (!(validLocations[i])) {
-                continue;
+            if (!onScreen[i]) {
+                hideMarker(i);
+            } else if (!showingMarkers[i] && hasOwnMarker(i)) {
+                showMarker(i);
+            }
+        }
+
+        /*
+         * Do the same for our clusters. If the user zoomed in or out we switch to a different cluster level, which
+         * means all of the old cluster markers have to go.
+         */
+        CameraPosition cameraPosition = googleMap.getCameraPosition();
+        int level = ClusterPyramid.LEVELS - 1;
+        if (cameraPosition != null) {
+            level = Math.max(0, Math.min(ClusterPyramid.LEVELS - 1,
+                Math.round(cameraPosition.zoom) + CLUSTER_LEVEL_OFFSET));
+        }
+        if (level != clusterLevel) {
+            for (int cluster = 0; cluster < LOCATION_ARRAY_SIZE; cluster++) {
+                hideCluster(cluster);
             }
-            float hue = BitmapDescriptorFactory.HUE_ORANGE;
-            if (i == furthestNorth) {
+            clusterLevel = level;
+            clusterPyramid.watch(clusterLevel);
+        } else {
+            updateClusters();
+        }
+        visibleCount = clusterPyramid.query(clusterLevel, visibleSouth, visibleWest, visibleNorth, visibleEast,
+            visibleLocations);
+        Arrays.fill(onScreen, false);
+        for (int visible = 0; visible < visibleCount; visible++) {
+            onScreen[visibleLocations[visible]] = true;
+        }
+        for (int cluster = 0; cluster < LOCATION_ARRAY_SIZE; cluster++) {
+            if (!onScreen[cluster]) {
+                hideCluster(cluster);
+            } else if (!showingClusters[cluster]) {
+                showCluster(cluster);
+            }
+        }
+        recordMarkerIconsCreated(iconsCreatedBefore);
+    }
+
+    /**
+     * Redraw the clusters that gained or lost locations since we last drew them.
+     * <p>
+     * Each new location changes at most two clusters: the one it joined and the one the location it replaced left.
+     */
+    private void updateClusters() {
+        if (clusterLevel == -1) {
+            return;
+        }
+        int changedCount = clusterPyramid.changes(changedClusters);
+        for (int changed = 0; changed < changedCount; changed++) {
+            int cluster = changedClusters[changed];
+            if (clusterPyramid.count(clusterLevel, cluster) == 0 || !isOnScreen(
+                clusterPyramid.latitude(clusterLevel, cluster), clusterPyramid.longitude(clusterLevel, cluster))) {
+                hideCluster(cluster);
+            } else {
+                showCluster(cluster);
+            }
+        }
+    }
+
+    /**
+     * Show the marker for a cluster at the current level, adding it to the map the first time.
+     * <p>
+     * Clusters are drawn where their locations are on average, and use the same color as other locations. Tapping
+     * one shows how many locations it contains.
+     *
+     * @param cluster the cluster
+     */
+    private void showCluster(final int cluster) {
+        LatLng position = new LatLng(clusterPyramid.latitude(clusterLevel, cluster),
+            clusterPyramid.longitude(clusterLevel, cluster));
+        String title = clusterPyramid.count(clusterLevel, cluster) + " locations";
+        if (clusterMarkers[cluster] == null) {
+            clusterMarkers[cluster] = googleMap.addMarker(new MarkerOptions().position(position).title(title)
+                .icon(markerIcons[MarkerClassification.OTHER]));
+        } else {
+            clusterMarkers[cluster].setPosition(position);
+            clusterMarkers[cluster].setTitle(title);
+            clusterMarkers[cluster].setVisible(true);
+        }
+        showingClusters[cluster] = true;
+    }
+
+    /**
+     * Hide the marker for a cluster, keeping it around so that it can be reused later.
+     *
+     * @param cluster the cluster
+     */
+    private void hideCluster(final int cluster) {
+        if (showingClusters[cluster]) {
+            clusterMarkers[cluster].setVisible(false);
+            showingClusters[cluster] = false;
+        }
+    }
+
+    /**
+     * Determine whether a saved location gets its own marker rather than just being part of a cluster.
+     *
+     * @param i the index of the location
+     * @return true if the location is valid and special: the furthest north, the latest, or one we've been near
+     */
+    private boolean hasOwnMarker(final int i) {
+        return drawnClasses[i] != MarkerClassification.HIDDEN && drawnClasses[i] != MarkerClassification.OTHER;
+    }
+
+    /**
+     * Determine whether a position was inside the visible part of the map when the map last stopped moving.
+     *
+     * @param latitude the latitude of the position
+     * @param longitude the longitude of the position
+     * @return true if the position is on screen
+     */
+    private boolean isOnScreen(final double latitude, final double longitude) {
+        if (latitude < visibleSouth || latitude > visibleNorth) {
+            return false;
+        } else if (visibleWest <= visibleEast) {
+            return longitude >= visibleWest && longitude <= visibleEast;
+        }
+        return longitude >= visibleWest || longitude <= visibleEast;
+    }
+
+    /**
+     * Show the marker for a saved location, adding it to the map the first time.
+     * <p>
+     * A hidden marker may have missed updates while it was hidden, so its position and color are always refreshed.
+     *
+     * @param i the index of the location
+     */
+    private void showMarker(final int i) {
+        LatLng position = new LatLng(drawnLatitudes[i], drawnLongitudes[i]);
+        if (markers[i] == null) {
+            markers[i] = googleMap.addMarker(new MarkerOptions().position(position).icon(markerIcon(i)));
+        } else {
+            markers[i].setPosition(position);
+            markers[i].setIcon(markerIcon(i));
+            markers[i].setVisible(true);
+        }
+        showingMarkers[i] = true;
+    }
+
+    /**
+     * Hide the marker for a saved location, keeping it around so that it can be reused later.
+     *
+     * @param i the index of the location
+     */
+    private void hideMarker(final int i) {
+        if (showingMarkers[i]) {
+            markers[i].setVisible(false);
+            showingMarkers[i] = false;
+        }
+    }
+
+    /**
+     * Choose the icon for a saved location's marker from the ones we created when the map was ready.
+     *
+     * @param i the index of the location
+     * @return the icon to use
+     */
+    private BitmapDescriptor markerIcon(final int i) {
+        return markerIcons[drawnClasses[i]];
+    }
+
+    /**
+     * Create the icon for each color class of marker.
+     * <p>
+     * We use one color (green) for the furthest position north, a second color (blue) for locations we've been near
+     * before, a third (red) for the latest location, and a fourth (orange) for the clusters that other locations
+     * are grouped into. Hidden locations don't get a marker, so they don't need an icon.
+     */
+    private void createMarkerIcons() {
+        markerIcons = new BitmapDescriptor[MarkerClassification.FARTHEST_NORTH + 1];
+        for (int markerClass = MarkerClassification.OTHER; markerClass < markerIcons.length; markerClass++) {
+            markerIcons[markerClass] = newMarkerIcon(markerHue(markerClass));
+        }
+    }
+
+    /**
+     * Create a new marker icon, counting it in markerIconsCreated.
+     * <p>
+     * This is the only place we ask BitmapDescriptorFactory for an icon.
+     *
+     * @param hue the color of the icon
+     * @return the new icon
+     */
+    private BitmapDescriptor newMarkerIcon(final float hue) {
+        markerIconsCreated++;
+        return BitmapDescriptorFactory.defaultMarker(hue);
+    }
+
+    /**
+     * Return the marker color for a color class.
+     *
+     * @param markerClass one of the MarkerClassification classes
+     * @return the hue to use
+     */
+    private static float markerHue(final int markerClass) {
+        float hue;
+        switch (markerClass) {
+            case MarkerClassification.FARTHEST_NORTH:
                 hue = BitmapDescriptorFactory.HUE_GREEN;
-            } else if (i == currentLocationIndex) {
+                break;
+            case MarkerClassification.CURRENT:
                 hue = BitmapDescriptorFactory.HUE_RED;
-            } else if (Locator.beenHere(i, latitudes, longitudes, validLocations)) {
+                break;
+            case MarkerClassification.REPEATED:
                 hue = BitmapDescriptorFactory.HUE_BLUE;
-            }
-            googleMap.addMarker(new MarkerOptions()
-                .position(new LatLng(latitudes[i], longitudes[i]))
-                .icon(BitmapDescriptorFactory.defaultMarker(hue)));
+                break;
+            default:
+                hue = BitmapDescriptorFactory.HUE_ORANGE;
+                break;
+        }
+        return hue;
+    }
+
+    /**
+     * In debug builds, record how many marker icons were created during a pass over the markers.
+     *
+     * @param iconsCreatedBefore the value of markerIconsCreated before the pass started
+     */
+    private void recordMarkerIconsCreated(final int iconsCreatedBefore) {
+        if (BuildConfig.DEBUG) {
+            markerIconsCreatedLastDraw = markerIconsCreated - iconsCreatedBefore;
         }
     }
 
+    /**
+     * Return how many marker icons were created during the most recent pass over the markers.
+     * <p>
+     * Only kept up to date in debug builds, where it should always be zero.
+     *
+     * @return the number of icons created
+     */
+    public int getMarkerIconsCreatedLastDraw() {
+        return markerIconsCreatedLastDraw;
+    }
+
     /**
      * Wander to a new fake location based on our current location.
      * <p>
@@ -536,8 +1392,8 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
          */
         double currentLatitude, currentLongitude;
         if (receivedLocation) {
-            currentLatitude = latitudes[currentLocationIndex];
-            currentLongitude = longitudes[currentLocationIndex];
+            currentLatitude = locationHistory.latitude(locationHistory.currentIndex());
+            currentLongitude = locationHistory.longitude(locationHistory.currentIndex());
         } else {
             currentLatitude = SIEBEL_CENTER_LATITUDE;
             currentLongitude = SIEBEL_CENTER_LONGITUDE;
@@ -596,7 +1452,8 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
          * Otherwise move the map camera based on the last recorded position.
          */
         googleMap.moveCamera(CameraUpdateFactory.newLatLng(
-            new LatLng(latitudes[currentLocationIndex], longitudes[currentLocationIndex])
+            new LatLng(locationHistory.latitude(locationHistory.currentIndex()),
+                locationHistory.longitude(locationHistory.currentIndex()))
         ));
     }
 
@@ -622,12 +1479,17 @@ public final class MainActivity extends FragmentActivity implements OnMapReadyCa
     }
 
     /**
-     * Purely to save a reference to the map in the view so that we can use it later.
+     * Save a reference to the map in the view so that we can use it later.
+     * <p>
+     * This is also when we create the icons for our markers. We only show markers for locations that are on screen,
+     * so we also ask the map to tell us whenever the user has finished moving it, and show or hide our markers then.
      *
      * @param setGoogleMap a reference to the GoogleMap controller for our MapView
      */
     @Override
     public void onMapReady(final GoogleMap setGoogleMap) {
         googleMap = setGoogleMap;
+        createMarkerIcons();
+        googleMap.setOnCameraIdleListener(this::showVisibleMarkers);
     }
 }
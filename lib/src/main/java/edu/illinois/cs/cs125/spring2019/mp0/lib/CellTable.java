@@ -0,0 +1,109 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+
+/**
+ * A hash table from long keys to int values, used to index grid cells.
+ * <p>
+ * The table uses open addressing with linear probing over primitive arrays, so keys and values are never boxed.
+ * It never resizes: it is created large enough for the maximum number of keys it will ever hold, which for the
+ * spatial indexes in this package is the capacity of the location history they follow.
+ */
+final class CellTable {
+
+    /** Value returned when a key is not present. */
+    static final int MISSING = -1;
+
+    /** The key stored in each entry. */
+    private final long[] keys;
+
+    /** The value stored in each entry, or MISSING for empty entries. */
+    private final int[] values;
+
+    /** Mask used to wrap probe positions around the table. */
+    private final int mask;
+
+    /**
+     * Create a new empty table.
+     *
+     * @param maxKeys the largest number of keys the table will hold at once
+     */
+    CellTable(final int maxKeys) {
+        int tableSize = Coordinates.tableSizeFor(maxKeys);
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        Arrays.fill(values, MISSING);
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Return the value stored for a key.
+     *
+     * @param key the key to look up
+     * @return the stored value, or MISSING if the key is not present
+     */
+    int get(final long key) {
+        return values[find(key)];
+    }
+
+    /**
+     * Store a value for a key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value, which must not be MISSING
+     */
+    void put(final long key, final int value) {
+        int entry = find(key);
+        keys[entry] = key;
+        values[entry] = value;
+    }
+
+    /**
+     * Remove a key if it is present.
+     * <p>
+     * Later entries in the same probe run are shifted back so that lookups never stop at a false gap.
+     *
+     * @param key the key to remove
+     */
+    void remove(final long key) {
+        int gap = find(key);
+        if (values[gap] == MISSING) {
+            return;
+        }
+        int next = (gap + 1) & mask;
+        while (values[next] != MISSING) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = MISSING;
+    }
+
+    /**
+     * Find the entry holding a key, or the empty entry where it would be inserted.
+     *
+     * @param key the key
+     * @return the position of the entry
+     */
+    private int find(final long key) {
+        int entry = home(key);
+        while (values[entry] != MISSING && keys[entry] != key) {
+            entry = (entry + 1) & mask;
+        }
+        return entry;
+    }
+
+    /**
+     * Return the position where probing for a key starts.
+     *
+     * @param key the key
+     * @return the key's home position
+     */
+    private int home(final long key) {
+        return Coordinates.hash(key, 0L) & mask;
+    }
+}
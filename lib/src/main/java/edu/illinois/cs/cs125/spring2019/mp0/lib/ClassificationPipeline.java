@@ -0,0 +1,317 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classifies saved locations for drawing on a background thread, so the thread that draws them only has to apply
+ * the result.
+ * <p>
+ * The pipeline keeps its own copy of the location history, along with the FarthestNorthTracker, ProximityIndex, and
+ * MarkerClassification that follow it, and only ever touches them from the background executor. Each submitted
+ * location, or batch of locations, is numbered with a generation and appended to that copy in the background. Once
+ * it has been classified, the result is published as a Frame: a snapshot of every slot's class and coordinates,
+ * handed to the listener through the foreground executor.
+ * <p>
+ * Results that are already out of date are dropped at both ends. In the background, a location that has been
+ * followed by a newer one is appended but not published, since the newer one's frame will include it. In the
+ * foreground, a frame that arrives after a newer location was submitted is discarded without reaching the listener.
+ * Because every frame is a complete snapshot rather than a list of changes, skipping frames never loses anything.
+ * <p>
+ * Nothing is allocated per frame. The pipeline owns two frames and takes turns writing into them: the background
+ * only ever writes into the one the listener does not currently hold. If a frame is still waiting to be delivered
+ * when a newer result is ready, it is overwritten in place rather than delivered twice. So a frame is only valid
+ * until the listener receives the next one.
+ * <p>
+ * The background executor must run tasks one at a time in the order they were submitted, like the executor returned
+ * by Executors.newSingleThreadExecutor. On Android, the foreground executor is usually a Handler's post method for
+ * the main thread. Locations should be submitted from the foreground thread. Call close before shutting down either
+ * executor, so that nothing new is handed to them and work they still have queued finishes without effect.
+ */
+public final class ClassificationPipeline {
+
+    /**
+     * Receives classification results.
+     */
+    public interface Listener {
+
+        /**
+         * Called on the foreground executor with the result for the most recently submitted location.
+         *
+         * @param frame the result, which the pipeline reuses once the next frame is delivered
+         */
+        void onFrame(Frame frame);
+    }
+
+    /**
+     * A snapshot of how every saved location should be drawn.
+     * <p>
+     * Frames are reused: one is only valid until the listener receives the next one.
+     */
+    public static final class Frame {
+
+        /** The generation of the newest location included. */
+        private long generation;
+
+        /** The class of each slot. */
+        private final int[] classes;
+
+        /** The latitude stored in each slot. */
+        private final double[] latitudes;
+
+        /** The longitude stored in each slot. */
+        private final double[] longitudes;
+
+        /**
+         * Create a new empty frame.
+         *
+         * @param capacity the number of slots
+         */
+        Frame(final int capacity) {
+            classes = new int[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+        }
+
+        /**
+         * Return the generation of the newest location included in this frame.
+         *
+         * @return the value that submit returned for that location
+         */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Return the number of slots.
+         *
+         * @return the capacity of the history
+         */
+        public int capacity() {
+            return classes.length;
+        }
+
+        /**
+         * Return the class of a slot.
+         *
+         * @param index the slot
+         * @return one of the MarkerClassification classes
+         */
+        public int classOf(final int index) {
+            return classes[index];
+        }
+
+        /**
+         * Return the latitude stored in a slot.
+         *
+         * @param index the slot
+         * @return the latitude, which is meaningless if the slot is hidden
+         */
+        public double latitude(final int index) {
+            return latitudes[index];
+        }
+
+        /**
+         * Return the longitude stored in a slot.
+         *
+         * @param index the slot
+         * @return the longitude, which is meaningless if the slot is hidden
+         */
+        public double longitude(final int index) {
+            return longitudes[index];
+        }
+    }
+
+    /** Runs classification. */
+    private final Executor background;
+
+    /** Delivers results. */
+    private final Executor foreground;
+
+    /** Receives results. */
+    private final Listener listener;
+
+    /** Generation of the most recently submitted location. */
+    private final AtomicLong submitted = new AtomicLong();
+
+    /** The background copy of the location history. */
+    private final LocationHistory history;
+
+    /** Classifies the background copy of the history. */
+    private final MarkerClassification classification;
+
+    /** Reused to receive the changed slots, which are not needed since every frame is complete. */
+    private final int[] changedSlots;
+
+    /** Reused to receive whether each changed slot moved. */
+    private final boolean[] movedSlots;
+
+    /** The two frames that results are written into, in turn. */
+    private final Frame[] frames;
+
+    /** Delivers the pending frame on the foreground executor. */
+    private final Runnable deliverTask = this::deliver;
+
+    /** Guards shownFrame and pendingFrame, which the background and foreground both use. */
+    private final Object frameLock = new Object();
+
+    /** The frame the listener received most recently, which must not be overwritten. */
+    private Frame shownFrame = null;
+
+    /** The frame waiting to be delivered, or null if there is none. */
+    private Frame pendingFrame = null;
+
+    /** Whether close has been called. */
+    private volatile boolean closed = false;
+
+    /**
+     * Create a new pipeline with an empty history.
+     *
+     * @param setCapacity the number of locations to keep
+     * @param setToleranceMeters the tolerance used to decide whether a location has been visited before
+     * @param setBackground the executor to classify on, which must run tasks one at a time in order
+     * @param setForeground the executor to deliver results on
+     * @param setListener the receiver of the results
+     */
+    public ClassificationPipeline(final int setCapacity, final double setToleranceMeters,
+                                  final Executor setBackground, final Executor setForeground,
+                                  final Listener setListener) {
+        background = setBackground;
+        foreground = setForeground;
+        listener = setListener;
+        history = new LocationHistory(setCapacity);
+        FarthestNorthTracker farthestNorthTracker = new FarthestNorthTracker(setCapacity);
+        ProximityIndex proximityIndex = new ProximityIndex(setCapacity, setToleranceMeters);
+        classification = new MarkerClassification(setCapacity, farthestNorthTracker, proximityIndex);
+        history.addListener(farthestNorthTracker);
+        history.addListener(proximityIndex);
+        history.addListener(classification);
+        changedSlots = new int[setCapacity];
+        movedSlots = new boolean[setCapacity];
+        frames = new Frame[] {new Frame(setCapacity), new Frame(setCapacity)};
+    }
+
+    /**
+     * Submit a new location to be added to the history and classified in the background.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @return the generation of the location, which increases by one with each call until the pipeline is closed
+     */
+    public long submit(final double latitude, final double longitude) {
+        if (closed) {
+            return submitted.get();
+        }
+        long generation = submitted.incrementAndGet();
+        background.execute(() -> process(latitude, longitude, generation));
+        return generation;
+    }
+
+    /**
+     * Submit a batch of new locations to be added to the history, oldest first, and classified once in the
+     * background.
+     * <p>
+     * The whole batch shares one generation, so only one frame is published for it no matter how many locations it
+     * holds. The locations are copied, so the caller can reuse the arrays.
+     *
+     * @param latitudes the new latitudes
+     * @param longitudes the new longitudes
+     * @param count the number of locations to take from the start of the arrays
+     * @return the generation of the batch, which is one more than the previous generation until the pipeline is
+     *     closed
+     */
+    public long submit(final double[] latitudes, final double[] longitudes, final int count) {
+        if (closed) {
+            return submitted.get();
+        }
+        double[] batchLatitudes = Arrays.copyOf(latitudes, count);
+        double[] batchLongitudes = Arrays.copyOf(longitudes, count);
+        long generation = submitted.incrementAndGet();
+        background.execute(() -> {
+            for (int i = 0; i < count; i++) {
+                history.append(batchLatitudes[i], batchLongitudes[i]);
+            }
+            publish(generation);
+        });
+        return generation;
+    }
+
+    /**
+     * Return the generation of the most recently submitted location.
+     *
+     * @return the generation, or 0 if no locations have been submitted
+     */
+    public long getGeneration() {
+        return submitted.get();
+    }
+
+    /**
+     * Stop accepting locations and delivering frames.
+     * <p>
+     * Later submissions are ignored, and work already queued on either executor finishes without reaching the
+     * listener, so both executors can safely be shut down afterwards.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Add a location to the background history, and publish a frame unless a newer location is already waiting.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @param generation the location's generation
+     */
+    private void process(final double latitude, final double longitude, final long generation) {
+        history.append(latitude, longitude);
+        publish(generation);
+    }
+
+    /**
+     * Classify the background history and publish a frame, unless a newer submission is already waiting.
+     *
+     * @param generation the generation of the newest location in the background history
+     */
+    private void publish(final long generation) {
+        if (closed || generation != submitted.get()) {
+            return;
+        }
+        classification.changes(changedSlots, movedSlots);
+        synchronized (frameLock) {
+            Frame frame = frames[0];
+            if (frame == shownFrame) {
+                frame = frames[1];
+            }
+            frame.generation = generation;
+            for (int i = 0; i < frame.classes.length; i++) {
+                frame.classes[i] = classification.classOf(i);
+            }
+            System.arraycopy(history.latitudes(), 0, frame.latitudes, 0, frame.latitudes.length);
+            System.arraycopy(history.longitudes(), 0, frame.longitudes, 0, frame.longitudes.length);
+            if (pendingFrame != null) {
+                return;
+            }
+            pendingFrame = frame;
+        }
+        foreground.execute(deliverTask);
+    }
+
+    /**
+     * Hand the pending frame to the listener, unless it is out of date or the pipeline has been closed.
+     * <p>
+     * Once the listener holds a frame, the background writes into the other one.
+     */
+    private void deliver() {
+        Frame frame;
+        synchronized (frameLock) {
+            frame = pendingFrame;
+            pendingFrame = null;
+            if (closed || frame.generation != submitted.get()) {
+                return;
+            }
+            shownFrame = frame;
+        }
+        listener.onFrame(frame);
+    }
+}
@@ -0,0 +1,500 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Groups nearby locations into clusters at every level of detail at once, so a map can draw one marker per cluster
+ * instead of one per location.
+ * <p>
+ * Each level divides the world into a square grid in the Web Mercator projection that map tiles use: level L has
+ * 2^L by 2^L cells, so every cell at one level is split into four at the next, and a cell at level L is as wide on
+ * screen as a map tile at zoom L. A cluster is the set of locations in one non-empty cell, summarized by how many
+ * locations it holds and their average position. Choose the level for a zoom by adding a fixed offset: two more
+ * levels than the zoom gives cells a quarter of a tile wide.
+ * <p>
+ * The pyramid is kept up to date one location at a time rather than being rebuilt. Adding or removing a location
+ * touches exactly one cell per level, and each level's non-empty cells are found through a CellTable, so every update
+ * takes time proportional to the number of levels. To redraw only what changed, watch the level being shown, and
+ * changes then reports the cells at that level that have gained or lost locations since the last call.
+ * <p>
+ * Cells are identified by small integers so that callers can keep per-cluster state in arrays. An identifier is
+ * reused once its cell becomes empty, so check count before trusting a cell you have not seen reported by query or
+ * changes. Locations with a NaN coordinate are not clustered, and latitudes beyond the reach of the Web Mercator
+ * projection are treated as lying at its edge.
+ */
+public final class ClusterPyramid implements LocationHistory.Listener {
+
+    /** Number of levels. The finest, LEVELS - 1, is detailed enough for any zoom that maps support. */
+    public static final int LEVELS = 24;
+
+    /** Largest latitude that the Web Mercator projection shows, in degrees. */
+    public static final double MAX_MERCATOR_LATITUDE = 85.05112877980659;
+
+    /** The finest level. */
+    private static final int MAX_LEVEL = LEVELS - 1;
+
+    /** Number of cells across the finest level. */
+    private static final long FINEST_CELLS = 1L << MAX_LEVEL;
+
+    /** Mask that extracts the row from a cell key. */
+    private static final long ROW_MASK = (1L << Integer.SIZE) - 1;
+
+    /** Marker for no cell, and for no watched level. */
+    private static final int NONE = -1;
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** Whether each slot is stored in the pyramid. */
+    private final boolean[] indexed;
+
+    /** The latitude stored in each indexed slot. */
+    private final double[] latitudes;
+
+    /** The longitude stored in each indexed slot. */
+    private final double[] longitudes;
+
+    /** The column of each indexed slot's cell at the finest level. */
+    private final long[] finestColumns;
+
+    /** The row of each indexed slot's cell at the finest level. */
+    private final long[] finestRows;
+
+    /** The non-empty cells at each level, by cell key. */
+    private final CellTable[] tables;
+
+    /** The key of each cell, by level. */
+    private final long[][] keys;
+
+    /** Number of locations in each cell, by level. */
+    private final int[][] counts;
+
+    /** Sum of the latitudes in each cell, by level. */
+    private final double[][] latitudeSums;
+
+    /** Sum of the longitudes in each cell, by level. */
+    private final double[][] longitudeSums;
+
+    /**
+     * Every cell identifier at each level, with the ones in use first. Identifiers are handed out from, and returned
+     * to, the boundary between the two parts.
+     */
+    private final int[][] order;
+
+    /** Where each cell identifier sits in order, by level. */
+    private final int[][] positions;
+
+    /** Number of non-empty cells at each level. */
+    private final int[] live;
+
+    /** The level whose changes are being recorded, or NONE. */
+    private int watchedLevel = NONE;
+
+    /** Whether each cell at the watched level has changed. */
+    private final boolean[] dirty;
+
+    /** The changed cells at the watched level, in the order they changed. */
+    private final int[] dirtyCells;
+
+    /** Number of changed cells. */
+    private int dirtyCount = 0;
+
+    /**
+     * Create a new empty pyramid.
+     *
+     * @param setCapacity the number of slots to track
+     */
+    public ClusterPyramid(final int setCapacity) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        indexed = new boolean[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        finestColumns = new long[capacity];
+        finestRows = new long[capacity];
+        tables = new CellTable[LEVELS];
+        keys = new long[LEVELS][capacity];
+        counts = new int[LEVELS][capacity];
+        latitudeSums = new double[LEVELS][capacity];
+        longitudeSums = new double[LEVELS][capacity];
+        order = new int[LEVELS][capacity];
+        positions = new int[LEVELS][capacity];
+        live = new int[LEVELS];
+        for (int level = 0; level < LEVELS; level++) {
+            tables[level] = new CellTable(capacity);
+            for (int cell = 0; cell < capacity; cell++) {
+                order[level][cell] = cell;
+                positions[level][cell] = cell;
+            }
+        }
+        dirty = new boolean[capacity];
+        dirtyCells = new int[capacity];
+    }
+
+    /**
+     * Store a location in a slot, replacing any location already there.
+     *
+     * @param index the slot
+     * @param latitude the latitude
+     * @param longitude the longitude
+     */
+    public void update(final int index, final double latitude, final double longitude) {
+        remove(index);
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return;
+        }
+        indexed[index] = true;
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        finestColumns[index] = finestColumn(longitude);
+        finestRows[index] = finestRow(latitude);
+        for (int level = 0; level < LEVELS; level++) {
+            long key = key(level, finestColumns[index], finestRows[index]);
+            int cell = tables[level].get(key);
+            if (cell == CellTable.MISSING) {
+                cell = allocate(level);
+                keys[level][cell] = key;
+                counts[level][cell] = 0;
+                latitudeSums[level][cell] = 0;
+                longitudeSums[level][cell] = 0;
+                tables[level].put(key, cell);
+            }
+            counts[level][cell]++;
+            latitudeSums[level][cell] += latitude;
+            longitudeSums[level][cell] += longitude;
+            markDirty(level, cell);
+        }
+    }
+
+    /**
+     * Remove the location in a slot, if there is one.
+     *
+     * @param index the slot
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+        if (!indexed[index]) {
+            return;
+        }
+        indexed[index] = false;
+        for (int level = 0; level < LEVELS; level++) {
+            long key = key(level, finestColumns[index], finestRows[index]);
+            int cell = tables[level].get(key);
+            counts[level][cell]--;
+            latitudeSums[level][cell] -= latitudes[index];
+            longitudeSums[level][cell] -= longitudes[index];
+            if (counts[level][cell] == 0) {
+                tables[level].remove(key);
+                release(level, cell);
+            }
+            markDirty(level, cell);
+        }
+    }
+
+    /**
+     * Find the non-empty cells at a level that overlap a box.
+     * <p>
+     * A cell is included if any part of it lies inside the box, so clusters straddling the edge of the screen are
+     * found. If the western edge is east of the eastern edge, the box wraps around through 180 degrees longitude.
+     *
+     * @param level the level
+     * @param south the southern edge of the box
+     * @param west the western edge of the box
+     * @param north the northern edge of the box
+     * @param east the eastern edge of the box
+     * @param result array to receive the cells, in no particular order, with room for every non-empty cell
+     * @return the number of cells stored in result
+     */
+    public int query(final int level, final double south, final double west, final double north, final double east,
+                     final int[] result) {
+        checkLevel(level);
+        if (!(south <= north) || Double.isNaN(west) || Double.isNaN(east)) {
+            return 0;
+        }
+        int shift = MAX_LEVEL - level;
+        long top = finestRow(north) >> shift;
+        long bottom = finestRow(south) >> shift;
+        long left = finestColumn(west) >> shift;
+        long right = finestColumn(east) >> shift;
+        long width = Math.min(1L << level, (1L << level) - left + right + 1);
+        if (west <= east) {
+            width = right - left + 1;
+        }
+        if (width * (bottom - top + 1) > live[level]) {
+            return scan(level, top, bottom, left, right, west <= east, result);
+        }
+        int count = 0;
+        for (long row = top; row <= bottom; row++) {
+            for (long step = 0; step < width; step++) {
+                long column = (left + step) & ((1L << level) - 1);
+                int cell = tables[level].get(packKey(column, row));
+                if (cell != CellTable.MISSING) {
+                    result[count++] = cell;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return the number of locations in a cell.
+     *
+     * @param level the level
+     * @param cell the cell
+     * @return the number of locations, which is 0 if the cell is empty
+     */
+    public int count(final int level, final int cell) {
+        checkLevel(level);
+        if (positions[level][cell] >= live[level]) {
+            return 0;
+        }
+        return counts[level][cell];
+    }
+
+    /**
+     * Return the average latitude of the locations in a cell.
+     *
+     * @param level the level
+     * @param cell the cell
+     * @return the average latitude, or NaN if the cell is empty
+     */
+    public double latitude(final int level, final int cell) {
+        int count = count(level, cell);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return latitudeSums[level][cell] / count;
+    }
+
+    /**
+     * Return the average longitude of the locations in a cell.
+     * <p>
+     * Cells below level 0 never straddle 180 degrees longitude, so this is always a sensible place to draw them.
+     *
+     * @param level the level
+     * @param cell the cell
+     * @return the average longitude, or NaN if the cell is empty
+     */
+    public double longitude(final int level, final int cell) {
+        int count = count(level, cell);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return longitudeSums[level][cell] / count;
+    }
+
+    /**
+     * Return the cell holding a slot's location.
+     *
+     * @param level the level
+     * @param index the slot
+     * @return the cell, or -1 if the slot holds no location
+     */
+    public int cellOf(final int level, final int index) {
+        checkLevel(level);
+        if (!indexed[index]) {
+            return NONE;
+        }
+        return tables[level].get(key(level, finestColumns[index], finestRows[index]));
+    }
+
+    /**
+     * Return the number of non-empty cells at a level.
+     *
+     * @param level the level
+     * @return the number of clusters
+     */
+    public int cells(final int level) {
+        checkLevel(level);
+        return live[level];
+    }
+
+    /**
+     * Start recording changes at one level, forgetting any recorded so far.
+     *
+     * @param level the level to watch
+     */
+    public void watch(final int level) {
+        checkLevel(level);
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyCells[i]] = false;
+        }
+        dirtyCount = 0;
+        watchedLevel = level;
+    }
+
+    /**
+     * Report the cells at the watched level that gained or lost locations since the last call, or since watch.
+     * <p>
+     * Reported cells may since have become empty, in which case their count is 0.
+     *
+     * @param result array to receive the cells, with room for one entry per slot
+     * @return the number of cells stored in result
+     */
+    public int changes(final int[] result) {
+        for (int i = 0; i < dirtyCount; i++) {
+            result[i] = dirtyCells[i];
+            dirty[dirtyCells[i]] = false;
+        }
+        int count = dirtyCount;
+        dirtyCount = 0;
+        return count;
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude, longitude);
+    }
+
+    /**
+     * Find the non-empty cells in a range of rows and columns by checking every non-empty cell at the level.
+     *
+     * @param level the level
+     * @param top the first row
+     * @param bottom the last row
+     * @param left the first column
+     * @param right the last column
+     * @param contiguous false if the columns wrap around from left to the end and then from 0 to right
+     * @param result array to receive the cells
+     * @return the number of cells stored in result
+     */
+    private int scan(final int level, final long top, final long bottom, final long left, final long right,
+                     final boolean contiguous, final int[] result) {
+        int count = 0;
+        for (int i = 0; i < live[level]; i++) {
+            int cell = order[level][i];
+            long column = keys[level][cell] >>> Integer.SIZE;
+            long row = keys[level][cell] & ROW_MASK;
+            if (row < top || row > bottom) {
+                continue;
+            }
+            boolean inside = column >= left || column <= right;
+            if (contiguous) {
+                inside = column >= left && column <= right;
+            }
+            if (inside) {
+                result[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Take an unused cell identifier at a level.
+     *
+     * @param level the level
+     * @return the identifier
+     */
+    private int allocate(final int level) {
+        return order[level][live[level]++];
+    }
+
+    /**
+     * Return a cell identifier to the unused ones at a level.
+     *
+     * @param level the level
+     * @param cell the identifier
+     */
+    private void release(final int level, final int cell) {
+        int last = order[level][--live[level]];
+        int position = positions[level][cell];
+        order[level][position] = last;
+        positions[level][last] = position;
+        order[level][live[level]] = cell;
+        positions[level][cell] = live[level];
+    }
+
+    /**
+     * Record that a cell changed, if it is at the watched level.
+     *
+     * @param level the level
+     * @param cell the cell
+     */
+    private void markDirty(final int level, final int cell) {
+        if (level != watchedLevel || dirty[cell]) {
+            return;
+        }
+        dirty[cell] = true;
+        dirtyCells[dirtyCount++] = cell;
+    }
+
+    /**
+     * Check that a level exists.
+     *
+     * @param level the level
+     */
+    private static void checkLevel(final int level) {
+        if (level < 0 || level >= LEVELS) {
+            throw new IllegalArgumentException("level " + level + " is outside 0 to " + MAX_LEVEL);
+        }
+    }
+
+    /**
+     * Compute the key of the cell at a level containing a cell at the finest level.
+     *
+     * @param level the level
+     * @param finestColumn the column at the finest level
+     * @param finestRow the row at the finest level
+     * @return the key
+     */
+    private static long key(final int level, final long finestColumn, final long finestRow) {
+        return packKey(finestColumn >> (MAX_LEVEL - level), finestRow >> (MAX_LEVEL - level));
+    }
+
+    /**
+     * Combine a column and row into a cell key.
+     *
+     * @param column the column
+     * @param row the row
+     * @return the key
+     */
+    private static long packKey(final long column, final long row) {
+        return (column << Integer.SIZE) | row;
+    }
+
+    /**
+     * Compute the column of the cell containing a longitude at the finest level.
+     *
+     * @param longitude the longitude
+     * @return the column, counting east from 180 degrees west
+     */
+    private static long finestColumn(final double longitude) {
+        double fraction = (longitude - Locator.MIN_LONGITUDE) / (Locator.MAX_LONGITUDE - Locator.MIN_LONGITUDE);
+        return Math.max(0, Math.min(FINEST_CELLS - 1, (long) Math.floor(fraction * FINEST_CELLS)));
+    }
+
+    /**
+     * Compute the row of the cell containing a latitude at the finest level.
+     *
+     * @param latitude the latitude
+     * @return the row, counting south from the northern edge of the projection
+     */
+    private static long finestRow(final double latitude) {
+        double clamped = Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude));
+        double sine = Math.sin(Math.toRadians(clamped));
+        double y = Math.log((1 + sine) / (1 - sine)) / 2;
+        double fraction = (1 - y / Math.PI) / 2;
+        return Math.max(0, Math.min(FINEST_CELLS - 1, (long) Math.floor(fraction * FINEST_CELLS)));
+    }
+}
@@ -0,0 +1,95 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Helpers for hashing latitude and longitude pairs.
+ * <p>
+ * Locator compares locations using exact <code>==</code> comparisons on doubles. That means that -0.0 and 0.0 are
+ * the same location, even though their bit patterns differ, and that a NaN coordinate never matches anything, not
+ * even itself. The helpers here produce hash codes that agree with those rules.
+ */
+final class Coordinates {
+
+    /** Multiplier used to combine the latitude and longitude bits. */
+    private static final long MIX_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Shift used to fold the high bits of a hash into the low bits. */
+    private static final int MIX_SHIFT = 32;
+
+    /** Largest table size: the largest power of two that fits in an int. */
+    static final int MAX_TABLE_SIZE = Integer.highestOneBit(Integer.MAX_VALUE);
+
+    /** Not instantiable. */
+    private Coordinates() { }
+
+    /**
+     * Return the bits of a coordinate with -0.0 folded into 0.0.
+     *
+     * @param coordinate the latitude or longitude
+     * @return bits that are equal whenever the coordinates compare equal using <code>==</code>
+     */
+    static long canonicalBits(final double coordinate) {
+        if (coordinate == 0.0) {
+            return 0L;
+        }
+        return Double.doubleToLongBits(coordinate);
+    }
+
+    /**
+     * Whether a location can ever compare equal to another one.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @return false if either coordinate is NaN
+     */
+    static boolean isComparable(final double latitude, final double longitude) {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+
+    /**
+     * Hash a pair of canonical coordinate bits.
+     *
+     * @param latitudeBits the canonical latitude bits
+     * @param longitudeBits the canonical longitude bits
+     * @return a well-mixed hash code
+     */
+    static int hash(final long latitudeBits, final long longitudeBits) {
+        long h = (latitudeBits * MIX_MULTIPLIER) ^ longitudeBits;
+        h *= MIX_MULTIPLIER;
+        return (int) (h ^ (h >>> MIX_SHIFT));
+    }
+
+    /**
+     * Hash a location.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @return a hash code that is equal for locations that compare equal
+     */
+    static int hash(final double latitude, final double longitude) {
+        return hash(canonicalBits(latitude), canonicalBits(longitude));
+    }
+
+    /**
+     * Return the smallest power of two that is at least twice the passed size.
+     * <p>
+     * Open-addressing tables in this package are kept at most half full so that probe sequences stay short. Sizes
+     * too large for that are given the largest table instead, which still always has an empty slot to end a probe.
+     *
+     * @param size the number of entries the table needs to hold
+     * @return the table size to allocate
+     * @throws IllegalArgumentException if size is negative or too large to leave an empty slot in the largest table
+     */
+    static int tableSizeFor(final int size) {
+        if (size < 0 || size >= MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("table size " + size + " is outside 0 to " + (MAX_TABLE_SIZE - 1));
+        }
+        if (size > MAX_TABLE_SIZE / 2) {
+            return MAX_TABLE_SIZE;
+        }
+        int tableSize = 2;
+        while (tableSize < size * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+}
@@ -0,0 +1,189 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the farthest north location in a fixed-size array of locations as it changes.
+ * <p>
+ * Locator.farthestNorth rescans every latitude each time it is called. But the app only changes one slot of its
+ * location arrays at a time, so most of that work repeats the previous scan. This class instead keeps a tournament
+ * tree over the slots: each leaf holds a slot, and each internal node holds the winner of its two children. Writing
+ * or removing a slot only replays the matches on the path from that leaf to the root, which takes O(log n) time,
+ * and the winner at the root can be read in O(1).
+ * <p>
+ * Ties are broken the same way as Locator.farthestNorth: if multiple slots are equally far north, the one with the
+ * lowest index wins. Slots holding a NaN latitude never win, again matching Locator.farthestNorth.
+ */
+public final class FarthestNorthTracker implements LocationHistory.Listener {
+
+    /** Marker for a tree node that contains no valid slot. */
+    private static final int NONE = -1;
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** Index of the first leaf in the tree. Always a power of two. */
+    private final int firstLeaf;
+
+    /** The tournament tree. Node n has children 2n and 2n + 1, and the root is node 1. */
+    private final int[] tree;
+
+    /** The latitude stored in each slot. */
+    private final double[] latitudes;
+
+    /**
+     * Create a new tracker with every slot invalid.
+     *
+     * @param setCapacity the number of slots to track
+     */
+    public FarthestNorthTracker(final int setCapacity) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        int leaves = 1;
+        while (leaves < capacity) {
+            leaves <<= 1;
+        }
+        firstLeaf = leaves;
+        tree = new int[leaves * 2];
+        Arrays.fill(tree, NONE);
+        latitudes = new double[capacity];
+    }
+
+    /**
+     * Create a tracker initialized from existing location arrays.
+     *
+     * @param setLatitudes the array containing latitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return a new tracker containing every valid location
+     */
+    public static FarthestNorthTracker of(final double[] setLatitudes, final boolean[] validLocations) {
+        FarthestNorthTracker tracker = new FarthestNorthTracker(setLatitudes.length);
+        for (int i = 0; i < setLatitudes.length; i++) {
+            tracker.latitudes[i] = setLatitudes[i];
+            if (validLocations[i] && !Double.isNaN(setLatitudes[i])) {
+                tracker.tree[tracker.firstLeaf + i] = i;
+            }
+        }
+        for (int node = tracker.firstLeaf - 1; node > 0; node--) {
+            tracker.tree[node] = tracker.winner(tracker.tree[2 * node], tracker.tree[2 * node + 1]);
+        }
+        return tracker;
+    }
+
+    /**
+     * Record a new valid latitude in a slot, replacing whatever it held before.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude stored in that slot
+     */
+    public void update(final int index, final double latitude) {
+        checkIndex(index);
+        latitudes[index] = latitude;
+        if (Double.isNaN(latitude)) {
+            replay(index, NONE);
+        } else {
+            replay(index, index);
+        }
+    }
+
+    /**
+     * Mark a slot as no longer containing a valid location.
+     *
+     * @param index the slot that was evicted
+     */
+    public void remove(final int index) {
+        checkIndex(index);
+        replay(index, NONE);
+    }
+
+    /**
+     * Return the index of the valid slot that is farthest north.
+     *
+     * @return the index of the farthest north slot, or -1 if no slots are valid
+     */
+    public int farthestNorth() {
+        return tree[1];
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude);
+    }
+
+    /**
+     * Return the number of slots being tracked.
+     *
+     * @return the capacity of this tracker
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Set a leaf and replay every match on the path from it to the root.
+     *
+     * @param index the slot whose leaf changed
+     * @param leaf the new leaf value
+     */
+    private void replay(final int index, final int leaf) {
+        int node = firstLeaf + index;
+        tree[node] = leaf;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = winner(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Decide a match between two slots.
+     * <p>
+     * The left slot always has the lower index, so it wins ties.
+     *
+     * @param left the slot from the left subtree, or NONE
+     * @param right the slot from the right subtree, or NONE
+     * @return the winning slot, or NONE if neither is valid
+     */
+    private int winner(final int left, final int right) {
+        if (left == NONE) {
+            return right;
+        }
+        if (right == NONE) {
+            return left;
+        }
+        if (latitudes[right] > latitudes[left]) {
+            return right;
+        }
+        return left;
+    }
+
+    /**
+     * Check that a slot index is in range.
+     *
+     * @param index the slot index to check
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Encode locations as geohashes.
+ * <p>
+ * A geohash divides the world into a grid by repeatedly halving the range of longitudes and then the range of
+ * latitudes, recording one bit for which half the location falls in each time. Interleaving the bits this way means
+ * that locations that are close together usually share a long common prefix, and that every prefix names a
+ * rectangular cell containing exactly the hashes that start with it. Sorting locations by geohash therefore keeps
+ * each cell together, which is what GeohashIndex relies on.
+ * <p>
+ * Hashes are stored right-aligned in a long, using up to MAX_BITS bits. The first bit is a longitude bit, matching
+ * the usual base-32 geohash strings, so a hash with a multiple of five bits converts to and from those strings.
+ */
+public final class Geohash {
+
+    /** Bits used for each coordinate in a full-precision hash. */
+    public static final int BITS_PER_COORDINATE = 30;
+
+    /** Bits in a full-precision hash. */
+    public static final int MAX_BITS = 2 * BITS_PER_COORDINATE;
+
+    /** Bits encoded by each character of a geohash string. */
+    public static final int BITS_PER_CHARACTER = 5;
+
+    /** The characters used by geohash strings, in order. */
+    private static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /** Number of steps each coordinate is divided into at full precision. */
+    private static final double COORDINATE_STEPS = 1L << BITS_PER_COORDINATE;
+
+    /** Masks used to spread the bits of a coordinate apart, from the widest gaps to the narrowest. */
+    private static final long[] SPREAD_MASKS = {
+        0x5555555555555555L,
+        0x3333333333333333L,
+        0x0F0F0F0F0F0F0F0FL,
+        0x00FF00FF00FF00FFL,
+        0x0000FFFF0000FFFFL,
+        0x00000000FFFFFFFFL,
+    };
+
+    /** Not instantiable. */
+    private Geohash() { }
+
+    /**
+     * Encode a location at full precision.
+     *
+     * @param latitude the latitude, which is clamped to the valid range
+     * @param longitude the longitude, which is clamped to the valid range
+     * @return the MAX_BITS-bit geohash of the location
+     */
+    public static long encode(final double latitude, final double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            throw new IllegalArgumentException("cannot encode a NaN coordinate");
+        }
+        long latitudeStep = quantize(latitude, Locator.MIN_LATITUDE, Locator.MAX_LATITUDE);
+        long longitudeStep = quantize(longitude, Locator.MIN_LONGITUDE, Locator.MAX_LONGITUDE);
+        return (spread(longitudeStep) << 1) | spread(latitudeStep);
+    }
+
+    /**
+     * Encode a location at a given precision.
+     *
+     * @param latitude the latitude, which is clamped to the valid range
+     * @param longitude the longitude, which is clamped to the valid range
+     * @param bits the number of bits to keep, from 0 to MAX_BITS
+     * @return the geohash of the location
+     */
+    public static long encode(final double latitude, final double longitude, final int bits) {
+        return prefix(encode(latitude, longitude), MAX_BITS, bits);
+    }
+
+    /**
+     * Shorten a geohash to one of its prefixes.
+     *
+     * @param hash the geohash
+     * @param bits the number of bits in the geohash
+     * @param prefixBits the number of bits to keep, no more than bits
+     * @return the first prefixBits bits of the geohash
+     */
+    public static long prefix(final long hash, final int bits, final int prefixBits) {
+        checkBits(bits);
+        if (prefixBits < 0 || prefixBits > bits) {
+            throw new IllegalArgumentException("prefix length " + prefixBits + " is outside 0 to " + bits);
+        }
+        if (prefixBits == 0) {
+            return 0;
+        }
+        return hash >>> (bits - prefixBits);
+    }
+
+    /**
+     * Return the latitude at the center of a geohash cell.
+     *
+     * @param hash the geohash
+     * @param bits the number of bits in the geohash
+     * @return the latitude at the center of the cell
+     */
+    public static double decodeLatitude(final long hash, final int bits) {
+        checkBits(bits);
+        int latitudeBits = bits / 2;
+        long step = compact(fullPrecision(hash, bits)) >>> (BITS_PER_COORDINATE - latitudeBits);
+        return center(step, latitudeBits, Locator.MIN_LATITUDE, Locator.MAX_LATITUDE);
+    }
+
+    /**
+     * Return the longitude at the center of a geohash cell.
+     *
+     * @param hash the geohash
+     * @param bits the number of bits in the geohash
+     * @return the longitude at the center of the cell
+     */
+    public static double decodeLongitude(final long hash, final int bits) {
+        checkBits(bits);
+        int longitudeBits = bits - bits / 2;
+        long step = compact(fullPrecision(hash, bits) >>> 1) >>> (BITS_PER_COORDINATE - longitudeBits);
+        return center(step, longitudeBits, Locator.MIN_LONGITUDE, Locator.MAX_LONGITUDE);
+    }
+
+    /**
+     * Convert a geohash to its usual base-32 string form.
+     *
+     * @param hash the geohash
+     * @param bits the number of bits in the geohash, which must be a multiple of BITS_PER_CHARACTER
+     * @return the geohash string
+     */
+    public static String toString(final long hash, final int bits) {
+        checkBits(bits);
+        if (bits % BITS_PER_CHARACTER != 0) {
+            throw new IllegalArgumentException("bits must be a multiple of " + BITS_PER_CHARACTER);
+        }
+        char[] characters = new char[bits / BITS_PER_CHARACTER];
+        for (int i = characters.length - 1, shift = 0; i >= 0; i--, shift += BITS_PER_CHARACTER) {
+            characters[i] = ALPHABET.charAt((int) (hash >>> shift) & (ALPHABET.length() - 1));
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Parse a geohash from its usual base-32 string form.
+     *
+     * @param geohash the geohash string, with at most MAX_BITS / BITS_PER_CHARACTER characters
+     * @return the geohash, with BITS_PER_CHARACTER bits for each character
+     */
+    public static long fromString(final String geohash) {
+        checkBits(geohash.length() * BITS_PER_CHARACTER);
+        long hash = 0;
+        for (int i = 0; i < geohash.length(); i++) {
+            int value = ALPHABET.indexOf(Character.toLowerCase(geohash.charAt(i)));
+            if (value < 0) {
+                throw new IllegalArgumentException("invalid geohash character " + geohash.charAt(i));
+            }
+            hash = (hash << BITS_PER_CHARACTER) | value;
+        }
+        return hash;
+    }
+
+    /**
+     * Return the smallest full-precision hash that starts with a prefix.
+     *
+     * @param prefix the prefix
+     * @param bits the number of bits in the prefix
+     * @return the first full-precision hash inside the prefix's cell
+     */
+    static long fullPrecision(final long prefix, final int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        return prefix << (MAX_BITS - bits);
+    }
+
+    /**
+     * Convert a coordinate to one of COORDINATE_STEPS equal steps across its range.
+     *
+     * @param coordinate the coordinate
+     * @param min the smallest valid value of the coordinate
+     * @param max the largest valid value of the coordinate
+     * @return the step containing the coordinate
+     */
+    private static long quantize(final double coordinate, final double min, final double max) {
+        long step = (long) Math.floor((coordinate - min) / (max - min) * COORDINATE_STEPS);
+        return Math.max(0, Math.min((long) COORDINATE_STEPS - 1, step));
+    }
+
+    /**
+     * Return the coordinate at the center of a step.
+     *
+     * @param step the step
+     * @param stepBits the number of bits used to number the steps
+     * @param min the smallest valid value of the coordinate
+     * @param max the largest valid value of the coordinate
+     * @return the coordinate halfway across the step
+     */
+    private static double center(final long step, final int stepBits, final double min, final double max) {
+        return min + (2 * step + 1) * (max - min) / (1L << (stepBits + 1));
+    }
+
+    /**
+     * Move the low BITS_PER_COORDINATE bits of a value to the even bit positions.
+     *
+     * @param value the value to spread
+     * @return the spread value, with zeros in every odd bit position
+     */
+    private static long spread(final long value) {
+        long spread = value & SPREAD_MASKS[SPREAD_MASKS.length - 1];
+        for (int i = SPREAD_MASKS.length - 2; i >= 0; i--) {
+            spread = (spread | (spread << (1 << i))) & SPREAD_MASKS[i];
+        }
+        return spread;
+    }
+
+    /**
+     * Gather the even bit positions of a value into its low bits. This undoes spread.
+     *
+     * @param value the value to compact
+     * @return the compacted value
+     */
+    private static long compact(final long value) {
+        long compact = value & SPREAD_MASKS[0];
+        for (int i = 1; i < SPREAD_MASKS.length; i++) {
+            compact = (compact | (compact >>> (1 << (i - 1)))) & SPREAD_MASKS[i];
+        }
+        return compact;
+    }
+
+    /**
+     * Check that a geohash length is supported.
+     *
+     * @param bits the number of bits
+     */
+    private static void checkBits(final int bits) {
+        if (bits < 0 || bits > MAX_BITS) {
+            throw new IllegalArgumentException("geohash length " + bits + " is outside 0 to " + MAX_BITS);
+        }
+    }
+}
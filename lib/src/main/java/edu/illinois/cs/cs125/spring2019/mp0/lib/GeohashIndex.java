@@ -0,0 +1,241 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Keeps the slots of a fixed-size array of locations sorted by geohash as it changes.
+ * <p>
+ * Every geohash prefix names a cell, and the full-precision hashes inside that cell form one contiguous range of
+ * values. So once the slots are sorted by hash, finding every location in a cell, or counting them, is two binary
+ * searches, and listing them only touches the slots that are actually in the cell. Nothing else is scanned.
+ * <p>
+ * The sorted order is kept in two parallel primitive arrays, one of hashes and one of slot numbers, ordered by hash
+ * and then by slot. Writing or removing a slot finds its position with a binary search and shifts the entries after
+ * it with System.arraycopy, which is a single memory move.
+ * <p>
+ * Locations with a NaN coordinate have no geohash, so they are never stored.
+ */
+public final class GeohashIndex implements LocationHistory.Listener {
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** The full-precision hash of each stored entry, in sorted order. */
+    private final long[] sortedHashes;
+
+    /** The slot of each stored entry, in the same order as sortedHashes. */
+    private final int[] sortedSlots;
+
+    /** The hash of each slot. Only meaningful for slots that are stored. */
+    private final long[] slotHashes;
+
+    /** Whether each slot is currently stored. */
+    private final boolean[] stored;
+
+    /** Number of stored entries. */
+    private int size = 0;
+
+    /**
+     * Create a new index with every slot invalid.
+     *
+     * @param setCapacity the number of slots to track
+     */
+    public GeohashIndex(final int setCapacity) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        sortedHashes = new long[capacity];
+        sortedSlots = new int[capacity];
+        slotHashes = new long[capacity];
+        stored = new boolean[capacity];
+    }
+
+    /**
+     * Record a new valid location in a slot, replacing whatever it held before.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude stored in that slot
+     * @param longitude the new longitude stored in that slot
+     */
+    public void update(final int index, final double latitude, final double longitude) {
+        remove(index);
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return;
+        }
+        long hash = Geohash.encode(latitude, longitude);
+        int position = search(hash, index);
+        System.arraycopy(sortedHashes, position, sortedHashes, position + 1, size - position);
+        System.arraycopy(sortedSlots, position, sortedSlots, position + 1, size - position);
+        sortedHashes[position] = hash;
+        sortedSlots[position] = index;
+        slotHashes[index] = hash;
+        stored[index] = true;
+        size++;
+    }
+
+    /**
+     * Mark a slot as no longer containing a valid location.
+     *
+     * @param index the slot that was evicted
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+        if (!stored[index]) {
+            return;
+        }
+        int position = search(slotHashes[index], index);
+        System.arraycopy(sortedHashes, position + 1, sortedHashes, position, size - position - 1);
+        System.arraycopy(sortedSlots, position + 1, sortedSlots, position, size - position - 1);
+        stored[index] = false;
+        size--;
+    }
+
+    /**
+     * Return the number of stored locations in a geohash cell.
+     *
+     * @param prefix the geohash of the cell
+     * @param bits the number of bits in the geohash
+     * @return the number of stored locations whose geohash starts with the prefix
+     */
+    public int count(final long prefix, final int bits) {
+        return end(prefix, bits) - start(prefix, bits);
+    }
+
+    /**
+     * Find the stored locations in a geohash cell.
+     * <p>
+     * The slots are written in geohash order. If the result array is too small, only as many slots as fit are
+     * written, but the full count is still returned.
+     *
+     * @param prefix the geohash of the cell
+     * @param bits the number of bits in the geohash
+     * @param result array to fill with the slots in the cell
+     * @return the number of stored locations in the cell
+     */
+    public int query(final long prefix, final int bits, final int[] result) {
+        int start = start(prefix, bits);
+        int count = end(prefix, bits) - start;
+        System.arraycopy(sortedSlots, start, result, 0, Math.min(count, result.length));
+        return count;
+    }
+
+    /**
+     * Find the stored locations that share a geohash cell with a slot, including the slot itself.
+     *
+     * @param index the slot to look up
+     * @param bits the precision of the cell, in bits
+     * @param result array to fill with the slots in the cell
+     * @return the number of stored locations in the cell, or 0 if the slot is not stored
+     */
+    public int sameCell(final int index, final int bits, final int[] result) {
+        if (!stored[index]) {
+            return 0;
+        }
+        return query(Geohash.prefix(slotHashes[index], Geohash.MAX_BITS, bits), bits, result);
+    }
+
+    /**
+     * Return the number of stored locations.
+     *
+     * @return the number of slots with a valid, non-NaN location
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the slot at a position in geohash order.
+     *
+     * @param position the position, from 0 to size() - 1
+     * @return the slot at that position
+     */
+    public int slotAt(final int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + " is outside size " + size);
+        }
+        return sortedSlots[position];
+    }
+
+    /**
+     * Return the position of the first stored location in a geohash cell.
+     * <p>
+     * Together with end and slotAt, this lets callers walk a cell without copying it, or split the sorted order into
+     * contiguous ranges to hand to separate threads.
+     *
+     * @param prefix the geohash of the cell
+     * @param bits the number of bits in the geohash
+     * @return the position of the first location in the cell
+     */
+    public int start(final long prefix, final int bits) {
+        return search(Geohash.fullPrecision(prefix, bits), 0);
+    }
+
+    /**
+     * Return the position just after the last stored location in a geohash cell.
+     *
+     * @param prefix the geohash of the cell
+     * @param bits the number of bits in the geohash
+     * @return the position after the last location in the cell
+     */
+    public int end(final long prefix, final int bits) {
+        if (bits == 0) {
+            return size;
+        }
+        return search(Geohash.fullPrecision(prefix + 1, bits), 0);
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude, longitude);
+    }
+
+    /**
+     * Return the number of slots being tracked.
+     *
+     * @return the capacity of this index
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Find the first position whose entry is not less than a hash and slot.
+     *
+     * @param hash the full-precision hash
+     * @param slot the slot, used to break ties between equal hashes
+     * @return the position of the first entry at or after the hash and slot
+     */
+    private int search(final long hash, final int slot) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedHashes[middle] < hash || (sortedHashes[middle] == hash && sortedSlots[middle] < slot)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,40 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Great-circle distances between locations.
+ * <p>
+ * Latitude and longitude are angles, so the distance covered by one degree depends on where you are: a degree of
+ * longitude spans about 111 km at the equator but shrinks to nothing at the poles. The haversine formula computes
+ * the distance along the surface of a spherical Earth, which is accurate to within about half a percent.
+ */
+public final class Haversine {
+
+    /** Mean radius of the Earth, in meters. */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /** Length of one degree of latitude, in meters. */
+    public static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180.0;
+
+    /** Not instantiable. */
+    private Haversine() { }
+
+    /**
+     * Compute the distance between two locations.
+     *
+     * @param latitude1 latitude of the first location
+     * @param longitude1 longitude of the first location
+     * @param latitude2 latitude of the second location
+     * @param longitude2 longitude of the second location
+     * @return the great-circle distance between the locations, in meters
+     */
+    public static double distance(final double latitude1, final double longitude1,
+                                  final double latitude2, final double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinHalfDeltaPhi = Math.sin((phi2 - phi1) / 2);
+        double sinHalfDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinHalfDeltaPhi * sinHalfDeltaPhi
+            + Math.cos(phi1) * Math.cos(phi2) * sinHalfDeltaLambda * sinHalfDeltaLambda;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
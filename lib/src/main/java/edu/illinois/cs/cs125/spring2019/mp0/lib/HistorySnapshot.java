@@ -0,0 +1,196 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Converts the locations in a history to and from a compact binary snapshot, so they can be saved to a file.
+ * <p>
+ * A snapshot stores the valid locations oldest first, so restoring it means appending them to an empty history in
+ * order. Coordinates are stored as fixed-point integers in units of UNITS_PER_DEGREE, which is about a centimeter,
+ * and each one is stored as the difference from the previous location's. Consecutive locations are usually close
+ * together, so most differences are small, and each is written as a zigzag varint: the sign moved into the lowest
+ * bit, then seven bits per byte with the high bit marking that more bytes follow. A typical location takes four or
+ * five bytes instead of the sixteen used by two doubles.
+ * <p>
+ * Locations whose coordinates can't be stored this way, like ones with a NaN coordinate, still keep their place.
+ * A validity bitmap packed like ValidityMask records which locations have coordinates. The rest have no differences
+ * stored and are restored with NaN coordinates.
+ * <p>
+ * The snapshot is laid out in little-endian byte order: the MAGIC number, the VERSION, the number of locations, the
+ * bitmap words, and then the differences. Rounding to fixed point moves a restored location by at most half a unit.
+ */
+public final class HistorySnapshot {
+
+    /** Number written at the start of every snapshot. */
+    public static final int MAGIC = 0x4D503048;
+
+    /** Version of the snapshot layout. */
+    public static final int VERSION = 1;
+
+    /** Fixed-point units in one degree. */
+    public static final double UNITS_PER_DEGREE = 1e7;
+
+    /** Largest latitude that can be stored. */
+    private static final double MAX_LATITUDE = 90.0;
+
+    /** Largest longitude that can be stored. */
+    private static final double MAX_LONGITUDE = 180.0;
+
+    /** Bytes in the header: the magic number, the version, and the count. */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    /** Most bytes a varint can take. */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    /** Bits stored in each varint byte. */
+    private static final int VARINT_SHIFT = 7;
+
+    /** Mask extracting the bits stored in each varint byte. */
+    private static final int VARINT_MASK = 0x7F;
+
+    /** Bit set in varint bytes that are followed by another one. */
+    private static final int VARINT_CONTINUE = 0x80;
+
+    /** Not instantiable. */
+    private HistorySnapshot() { }
+
+    /**
+     * Write a snapshot of every valid location in a history.
+     *
+     * @param history the history to save
+     * @return a buffer positioned at the start of the snapshot and limited to its end
+     */
+    public static ByteBuffer encode(final LocationHistory history) {
+        int count = history.size();
+        boolean[] stored = new boolean[count];
+        for (int position = 0; position < count; position++) {
+            int index = history.indexOf(position);
+            stored[position] = isStorable(history.latitude(index), history.longitude(index));
+        }
+        long[] bitmap = ValidityMask.pack(stored);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bitmap.length * Long.BYTES
+            + count * 2 * MAX_VARINT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+        for (long word : bitmap) {
+            buffer.putLong(word);
+        }
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (int position = 0; position < count; position++) {
+            if (!stored[position]) {
+                continue;
+            }
+            int index = history.indexOf(position);
+            long latitude = Math.round(history.latitude(index) * UNITS_PER_DEGREE);
+            long longitude = Math.round(history.longitude(index) * UNITS_PER_DEGREE);
+            putVarint(buffer, latitude - previousLatitude);
+            putVarint(buffer, longitude - previousLongitude);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read the locations from a snapshot, oldest first.
+     * <p>
+     * If the snapshot holds more locations than fit in the arrays, only the most recent ones are returned. The
+     * buffer's position and byte order are left unchanged, so a memory-mapped file can be read directly.
+     *
+     * @param snapshot the snapshot, from its position to its limit
+     * @param latitudes array to receive the latitudes
+     * @param longitudes array to receive the longitudes, the same length as latitudes
+     * @return the number of locations read into the start of the arrays
+     * @throws IllegalArgumentException if the buffer does not hold a complete snapshot
+     */
+    public static int decode(final ByteBuffer snapshot, final double[] latitudes, final double[] longitudes) {
+        ByteBuffer buffer = snapshot.slice().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalArgumentException("buffer does not hold a location history snapshot");
+            }
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("snapshot count must not be negative");
+            }
+            if (ValidityMask.words(count) > buffer.remaining() / Long.BYTES) {
+                throw new BufferUnderflowException();
+            }
+            long[] bitmap = new long[ValidityMask.words(count)];
+            for (int i = 0; i < bitmap.length; i++) {
+                bitmap[i] = buffer.getLong();
+            }
+            int skipped = Math.max(0, count - latitudes.length);
+            long latitude = 0;
+            long longitude = 0;
+            for (int position = 0; position < count; position++) {
+                boolean stored = ValidityMask.isValid(bitmap, position);
+                if (stored) {
+                    latitude += getVarint(buffer);
+                    longitude += getVarint(buffer);
+                }
+                if (position < skipped) {
+                    continue;
+                }
+                if (stored) {
+                    latitudes[position - skipped] = latitude / UNITS_PER_DEGREE;
+                    longitudes[position - skipped] = longitude / UNITS_PER_DEGREE;
+                } else {
+                    latitudes[position - skipped] = Double.NaN;
+                    longitudes[position - skipped] = Double.NaN;
+                }
+            }
+            return count - skipped;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("snapshot is truncated");
+        }
+    }
+
+    /**
+     * Whether a location's coordinates can be stored in fixed point.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @return true if both coordinates are within their valid ranges
+     */
+    private static boolean isStorable(final double latitude, final double longitude) {
+        return Math.abs(latitude) <= MAX_LATITUDE && Math.abs(longitude) <= MAX_LONGITUDE;
+    }
+
+    /**
+     * Write a signed value as a zigzag varint.
+     *
+     * @param buffer the buffer to write to
+     * @param value the value
+     */
+    private static void putVarint(final ByteBuffer buffer, final long value) {
+        long zigzag = (value << 1) ^ (value >> (Long.SIZE - 1));
+        while ((zigzag & ~VARINT_MASK) != 0) {
+            buffer.put((byte) ((zigzag & VARINT_MASK) | VARINT_CONTINUE));
+            zigzag >>>= VARINT_SHIFT;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    /**
+     * Read a signed value written as a zigzag varint.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     */
+    private static long getVarint(final ByteBuffer buffer) {
+        long zigzag = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_SHIFT) {
+            int b = buffer.get();
+            zigzag |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_CONTINUE) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("snapshot contains a malformed varint");
+    }
+}
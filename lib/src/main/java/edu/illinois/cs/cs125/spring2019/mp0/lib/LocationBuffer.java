@@ -0,0 +1,136 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Hands locations from the thread that receives them to the thread that processes them, in batches.
+ * <p>
+ * The receiving thread offers each location as it arrives. The processing thread drains everything waiting at once,
+ * for example once per display frame, so a burst of locations is processed and drawn together instead of one at a
+ * time. Offer reports whether the buffer was empty, which is exactly when the receiver needs to schedule a drain: if
+ * it wasn't empty, a drain is already on its way.
+ * <p>
+ * The buffer holds a fixed number of locations. If the processing thread falls so far behind that it fills up, the
+ * oldest waiting location is dropped to make room for the newest. Two counters make that visible: how many locations
+ * were dropped, and how many were coalesced, meaning drained along with a newer location rather than on their own.
+ * <p>
+ * Every method is synchronized, so the buffer can be shared between threads. Nothing is allocated after
+ * construction.
+ */
+public final class LocationBuffer {
+
+    /** Latitudes of the waiting locations, in a circular buffer. */
+    private final double[] latitudes;
+
+    /** Longitudes of the waiting locations. */
+    private final double[] longitudes;
+
+    /** Times of the waiting locations. */
+    private final long[] times;
+
+    /** Position of the oldest waiting location. */
+    private int head = 0;
+
+    /** Number of waiting locations. */
+    private int size = 0;
+
+    /** Number of locations dropped because the buffer was full. */
+    private long dropped = 0;
+
+    /** Number of locations drained along with a newer one. */
+    private long coalesced = 0;
+
+    /**
+     * Create a new empty buffer.
+     *
+     * @param setCapacity the largest number of locations that can wait at once
+     */
+    public LocationBuffer(final int setCapacity) {
+        if (setCapacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        latitudes = new double[setCapacity];
+        longitudes = new double[setCapacity];
+        times = new long[setCapacity];
+    }
+
+    /**
+     * Add a location to the end of the buffer, dropping the oldest waiting location if it is full.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param timeMillis when the location was measured, in milliseconds
+     * @return true if the buffer was empty, so a drain needs to be scheduled
+     */
+    public synchronized boolean offer(final double latitude, final double longitude, final long timeMillis) {
+        if (size == latitudes.length) {
+            head = (head + 1) % latitudes.length;
+            size--;
+            dropped++;
+        }
+        int tail = (head + size) % latitudes.length;
+        latitudes[tail] = latitude;
+        longitudes[tail] = longitude;
+        times[tail] = timeMillis;
+        size++;
+        return size == 1;
+    }
+
+    /**
+     * Remove every waiting location, oldest first.
+     *
+     * @param setLatitudes array to receive the latitudes, with room for the capacity
+     * @param setLongitudes array to receive the longitudes, with room for the capacity
+     * @param setTimes array to receive the times, with room for the capacity
+     * @return the number of locations drained
+     */
+    public synchronized int drain(final double[] setLatitudes, final double[] setLongitudes, final long[] setTimes) {
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            int position = (head + i) % latitudes.length;
+            setLatitudes[i] = latitudes[position];
+            setLongitudes[i] = longitudes[position];
+            setTimes[i] = times[position];
+        }
+        if (count > 1) {
+            coalesced += count - 1;
+        }
+        head = 0;
+        size = 0;
+        return count;
+    }
+
+    /**
+     * Return the number of waiting locations.
+     *
+     * @return the number of locations offered and not yet drained or dropped
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Return the largest number of locations that can wait at once.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return latitudes.length;
+    }
+
+    /**
+     * Return the number of locations dropped because the buffer was full.
+     *
+     * @return the total since the buffer was created
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Return the number of locations that were drained along with a newer one.
+     *
+     * @return the total since the buffer was created
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+}
@@ -0,0 +1,252 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size history of location measurements stored in a circular buffer.
+ * <p>
+ * Locations are stored in the same layout that the Locator methods expect: one array of latitudes, one array of
+ * longitudes, and one array recording which slots hold valid measurements. New locations are written to the slot
+ * after the previous one, wrapping around to the start once the end is reached, so once the history is full each new
+ * location overwrites the oldest one.
+ * <p>
+ * The backing arrays are exposed directly through latitudes, longitudes, and validLocations so that the static
+ * Locator methods can run on the history without copying it. Callers must treat those arrays as read-only and only
+ * change the history through append and clear.
+ * <p>
+ * This history lives on the Java heap. For very large histories see OffHeapLocationHistory.
+ * <p>
+ * Objects that need to follow changes to the history, like FarthestNorthTracker and VisitIndex, can register as a
+ * Listener and are notified about every slot that is overwritten or written.
+ */
+public final class LocationHistory implements LocationStore {
+
+    /**
+     * Receives notifications about changes to a LocationHistory.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a valid location is about to be overwritten or cleared.
+         *
+         * @param index the slot being evicted
+         * @param latitude the latitude that was stored in the slot
+         * @param longitude the longitude that was stored in the slot
+         */
+        void onEvict(int index, double latitude, double longitude);
+
+        /**
+         * Called after a new location has been written.
+         *
+         * @param index the slot that was written
+         * @param latitude the new latitude
+         * @param longitude the new longitude
+         */
+        void onAppend(int index, double latitude, double longitude);
+    }
+
+    /** Array of latitude measurements. */
+    private final double[] latitudes;
+
+    /** Array of longitude measurements. */
+    private final double[] longitudes;
+
+    /** Whether the location at each index is valid. */
+    private final boolean[] validLocations;
+
+    /** Index of the most recent location, or -1 if there is none. */
+    private int currentIndex = -1;
+
+    /** Number of valid locations. */
+    private int size = 0;
+
+    /** Objects notified about changes. */
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Create a new empty history.
+     *
+     * @param capacity the number of locations to keep
+     */
+    public LocationHistory(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        validLocations = new boolean[capacity];
+    }
+
+    /**
+     * Register an object to be notified about changes to this history.
+     * <p>
+     * The listener is not told about locations that are already stored.
+     *
+     * @param listener the object to notify
+     */
+    public void addListener(final Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Add a new location, overwriting the oldest one if the history is full.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @return the index of the slot that the location was written to
+     */
+    @Override
+    public int append(final double latitude, final double longitude) {
+        currentIndex = (currentIndex + 1) % latitudes.length;
+        if (validLocations[currentIndex]) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onEvict(currentIndex, latitudes[currentIndex], longitudes[currentIndex]);
+            }
+        } else {
+            size++;
+        }
+        latitudes[currentIndex] = latitude;
+        longitudes[currentIndex] = longitude;
+        validLocations[currentIndex] = true;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onAppend(currentIndex, latitude, longitude);
+        }
+        return currentIndex;
+    }
+
+    /**
+     * Remove every location.
+     */
+    public void clear() {
+        for (int i = 0; i < latitudes.length; i++) {
+            if (validLocations[i]) {
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).onEvict(i, latitudes[i], longitudes[i]);
+                }
+                validLocations[i] = false;
+            }
+        }
+        currentIndex = -1;
+        size = 0;
+    }
+
+    /**
+     * Return the maximum number of locations this history can hold.
+     *
+     * @return the capacity of this history
+     */
+    @Override
+    public int capacity() {
+        return latitudes.length;
+    }
+
+    /**
+     * Return the number of valid locations in this history.
+     *
+     * @return the number of valid locations
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether this history contains no locations.
+     *
+     * @return true if there are no valid locations
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the index of the most recent location.
+     *
+     * @return the slot holding the most recent location, or -1 if the history is empty
+     */
+    @Override
+    public int currentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Convert a position in insertion order to a slot index.
+     * <p>
+     * Position 0 is the oldest location and position size() - 1 is the most recent one, so looping over positions
+     * visits the valid locations in the order that they were added.
+     *
+     * @param position the position in insertion order, from 0 to size() - 1
+     * @return the index of the slot holding that location
+     */
+    public int indexOf(final int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + " is outside size " + size);
+        }
+        int index = currentIndex - (size - 1) + position;
+        if (index < 0) {
+            index += latitudes.length;
+        }
+        return index;
+    }
+
+    /**
+     * Return the latitude stored in a slot.
+     *
+     * @param index the slot index
+     * @return the latitude stored in that slot
+     */
+    @Override
+    public double latitude(final int index) {
+        return latitudes[index];
+    }
+
+    /**
+     * Return the longitude stored in a slot.
+     *
+     * @param index the slot index
+     * @return the longitude stored in that slot
+     */
+    @Override
+    public double longitude(final int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * Return whether a slot holds a valid location.
+     *
+     * @param index the slot index
+     * @return true if the slot holds a valid location
+     */
+    @Override
+    public boolean isValid(final int index) {
+        return validLocations[index];
+    }
+
+    /**
+     * Return the backing latitude array, without copying it.
+     *
+     * @return the array of latitudes. It must not be modified.
+     */
+    public double[] latitudes() {
+        return latitudes;
+    }
+
+    /**
+     * Return the backing longitude array, without copying it.
+     *
+     * @return the array of longitudes. It must not be modified.
+     */
+    public double[] longitudes() {
+        return longitudes;
+    }
+
+    /**
+     * Return the backing validity array, without copying it.
+     *
+     * @return the array recording which slots are valid. It must not be modified.
+     */
+    public boolean[] validLocations() {
+        return validLocations;
+    }
+}
@@ -0,0 +1,467 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+
+/**
+ * Finds the locations inside a latitude and longitude bounding box, like the part of the world visible on a map.
+ * <p>
+ * This is a quadtree: the root covers the whole world, and any node holding more than LEAF_CAPACITY locations is
+ * split into four children covering its northwest, northeast, southwest, and southeast quarters. A box query only
+ * descends into nodes that overlap the box, so locations far outside the box are never examined.
+ * <p>
+ * The tree follows a fixed-size array of locations as it changes. Writing a slot walks down from the root to the leaf
+ * covering the location, splitting it if it becomes too full. Removing a slot walks back up, and once a subtree holds
+ * no more than LEAF_CAPACITY locations it is merged back into a single leaf, so a history that keeps moving does
+ * not leave a trail of empty nodes behind it.
+ * <p>
+ * Nodes are stored in primitive arrays, allocated four at a time since children always come in fours, and freed
+ * groups of four are reused. The locations in each leaf form a doubly-linked list threaded through int arrays.
+ * <p>
+ * Locations outside the valid ranges are kept in the nodes along the nearest edge of the world, and are still found by
+ * queries. Locations with a NaN coordinate are never stored.
+ */
+public final class LocationQuadtree implements LocationHistory.Listener {
+
+    /** Marker for no node or no slot. */
+    private static final int NONE = -1;
+
+    /** Largest number of locations a leaf holds before it is split. */
+    private static final int LEAF_CAPACITY = 8;
+
+    /** Depth past which leaves are never split, so that many identical locations cannot split forever. */
+    private static final int MAX_DEPTH = 32;
+
+    /** Number of children of each internal node. */
+    private static final int QUADRANTS = 4;
+
+    /** Quadrant bit set for the northern children. */
+    private static final int NORTH = 2;
+
+    /** Quadrant bit set for the eastern children. */
+    private static final int EAST = 1;
+
+    /** The root node. */
+    private static final int ROOT = 0;
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** The latitude stored in each slot. */
+    private final double[] latitudes;
+
+    /** The longitude stored in each slot. */
+    private final double[] longitudes;
+
+    /** The leaf holding each slot, or NONE if the slot is not stored. */
+    private final int[] leafOf;
+
+    /** Next slot in the same leaf. */
+    private final int[] next;
+
+    /** Previous slot in the same leaf. */
+    private final int[] previous;
+
+    /** First of the four children of each node, or NONE for leaves. */
+    private int[] children;
+
+    /** Parent of each node, or NONE for the root. */
+    private int[] parents;
+
+    /** Number of locations in the subtree rooted at each node. */
+    private int[] counts;
+
+    /** First slot in each leaf. */
+    private int[] heads;
+
+    /** Number of node entries ever allocated. */
+    private int nodeCount;
+
+    /** First nodes of freed groups of four children, ready to be reused. */
+    private int[] freeQuads;
+
+    /** Number of entries in freeQuads. */
+    private int freeQuadCount;
+
+    /** Southern edge of the box being queried. */
+    private double querySouth;
+
+    /** Northern edge of the box being queried. */
+    private double queryNorth;
+
+    /** Western edge of the box being queried. */
+    private double queryWest;
+
+    /** Eastern edge of the box being queried. */
+    private double queryEast;
+
+    /**
+     * Create a new empty tree.
+     *
+     * @param setCapacity the number of slots to track
+     */
+    public LocationQuadtree(final int setCapacity) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        leafOf = new int[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(leafOf, NONE);
+        children = new int[1 + QUADRANTS];
+        parents = new int[children.length];
+        counts = new int[children.length];
+        heads = new int[children.length];
+        freeQuads = new int[1];
+        children[ROOT] = NONE;
+        parents[ROOT] = NONE;
+        heads[ROOT] = NONE;
+        nodeCount = 1;
+    }
+
+    /**
+     * Record a new valid location in a slot, replacing whatever it held before.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude stored in that slot
+     * @param longitude the new longitude stored in that slot
+     */
+    public void update(final int index, final double latitude, final double longitude) {
+        remove(index);
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return;
+        }
+        double south = Locator.MIN_LATITUDE;
+        double north = Locator.MAX_LATITUDE;
+        double west = Locator.MIN_LONGITUDE;
+        double east = Locator.MAX_LONGITUDE;
+        int node = ROOT;
+        int depth = 0;
+        while (children[node] != NONE) {
+            counts[node]++;
+            double middleLatitude = (south + north) / 2;
+            double middleLongitude = (west + east) / 2;
+            int quadrant = quadrant(index, middleLatitude, middleLongitude);
+            if ((quadrant & NORTH) != 0) {
+                south = middleLatitude;
+            } else {
+                north = middleLatitude;
+            }
+            if ((quadrant & EAST) != 0) {
+                west = middleLongitude;
+            } else {
+                east = middleLongitude;
+            }
+            node = children[node] + quadrant;
+            depth++;
+        }
+        counts[node]++;
+        link(index, node);
+        if (counts[node] > LEAF_CAPACITY && depth < MAX_DEPTH) {
+            split(node, depth, south, north, west, east);
+        }
+    }
+
+    /**
+     * Mark a slot as no longer containing a valid location.
+     *
+     * @param index the slot that was evicted
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+        int leaf = leafOf[index];
+        if (leaf == NONE) {
+            return;
+        }
+        unlink(index, leaf);
+        int merge = NONE;
+        for (int node = leaf; node != NONE; node = parents[node]) {
+            counts[node]--;
+            if (node != leaf && counts[node] <= LEAF_CAPACITY) {
+                merge = node;
+            }
+        }
+        if (merge != NONE) {
+            int first = children[merge];
+            children[merge] = NONE;
+            absorb(first, merge);
+        }
+    }
+
+    /**
+     * Find the stored locations inside a bounding box.
+     * <p>
+     * Edges are inclusive. If west is greater than east, the box is taken to cross the antimeridian, covering the
+     * longitudes from west to 180 and from -180 to east, just like a map viewport that straddles it. If the result
+     * array is too small, only as many slots as fit are written, but the full count is still returned.
+     *
+     * @param south the southern edge of the box
+     * @param west the western edge of the box
+     * @param north the northern edge of the box
+     * @param east the eastern edge of the box
+     * @param result array to fill with the slots inside the box
+     * @return the number of stored locations inside the box
+     */
+    public int query(final double south, final double west, final double north, final double east,
+                     final int[] result) {
+        querySouth = south;
+        queryNorth = north;
+        if (west <= east) {
+            queryWest = west;
+            queryEast = east;
+            return search(ROOT, Locator.MIN_LATITUDE, Locator.MAX_LATITUDE, Locator.MIN_LONGITUDE,
+                Locator.MAX_LONGITUDE, result, 0);
+        }
+        queryWest = west;
+        queryEast = Locator.MAX_LONGITUDE;
+        int found = search(ROOT, Locator.MIN_LATITUDE, Locator.MAX_LATITUDE, Locator.MIN_LONGITUDE,
+            Locator.MAX_LONGITUDE, result, 0);
+        queryWest = Locator.MIN_LONGITUDE;
+        queryEast = east;
+        return search(ROOT, Locator.MIN_LATITUDE, Locator.MAX_LATITUDE, Locator.MIN_LONGITUDE,
+            Locator.MAX_LONGITUDE, result, found);
+    }
+
+    /**
+     * Return the number of stored locations.
+     *
+     * @return the number of slots with a valid, non-NaN location
+     */
+    public int size() {
+        return counts[ROOT];
+    }
+
+    /**
+     * Return the number of nodes currently in use, including the root.
+     *
+     * @return the number of nodes in the tree
+     */
+    public int nodes() {
+        return nodeCount - freeQuadCount * QUADRANTS;
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude, longitude);
+    }
+
+    /**
+     * Collect the stored locations of one subtree that lie inside the query box.
+     *
+     * @param node the root of the subtree
+     * @param south the southern edge of the node
+     * @param north the northern edge of the node
+     * @param west the western edge of the node
+     * @param east the eastern edge of the node
+     * @param result array to fill with slots
+     * @param found the number of slots found so far
+     * @return the number of slots found, including this subtree
+     */
+    private int search(final int node, final double south, final double north, final double west,
+                       final double east, final int[] result, final int found) {
+        /*
+         * Nodes on the outer edges of the world also hold any locations beyond those edges, so compare against the
+         * query box clamped to the valid ranges.
+         */
+        if (counts[node] == 0
+            || north < Math.min(querySouth, Locator.MAX_LATITUDE) || south > Math.max(queryNorth, Locator.MIN_LATITUDE)
+            || east < Math.min(queryWest, Locator.MAX_LONGITUDE) || west > Math.max(queryEast, Locator.MIN_LONGITUDE)) {
+            return found;
+        }
+        int total = found;
+        if (children[node] == NONE) {
+            for (int slot = heads[node]; slot != NONE; slot = next[slot]) {
+                if (latitudes[slot] >= querySouth && latitudes[slot] <= queryNorth
+                    && longitudes[slot] >= queryWest && longitudes[slot] <= queryEast) {
+                    if (total < result.length) {
+                        result[total] = slot;
+                    }
+                    total++;
+                }
+            }
+            return total;
+        }
+        double middleLatitude = (south + north) / 2;
+        double middleLongitude = (west + east) / 2;
+        int first = children[node];
+        total = search(first, south, middleLatitude, west, middleLongitude, result, total);
+        total = search(first + EAST, south, middleLatitude, middleLongitude, east, result, total);
+        total = search(first + NORTH, middleLatitude, north, west, middleLongitude, result, total);
+        return search(first + NORTH + EAST, middleLatitude, north, middleLongitude, east, result, total);
+    }
+
+    /**
+     * Split a leaf into four children, splitting them in turn if they are still too full.
+     *
+     * @param node the leaf to split
+     * @param depth the depth of the leaf
+     * @param south the southern edge of the leaf
+     * @param north the northern edge of the leaf
+     * @param west the western edge of the leaf
+     * @param east the eastern edge of the leaf
+     */
+    private void split(final int node, final int depth, final double south, final double north,
+                       final double west, final double east) {
+        int first = allocateQuad(node);
+        double middleLatitude = (south + north) / 2;
+        double middleLongitude = (west + east) / 2;
+        int slot = heads[node];
+        heads[node] = NONE;
+        children[node] = first;
+        while (slot != NONE) {
+            int following = next[slot];
+            int child = first + quadrant(slot, middleLatitude, middleLongitude);
+            link(slot, child);
+            counts[child]++;
+            slot = following;
+        }
+        if (depth + 1 >= MAX_DEPTH) {
+            return;
+        }
+        if (counts[first] > LEAF_CAPACITY) {
+            split(first, depth + 1, south, middleLatitude, west, middleLongitude);
+        }
+        if (counts[first + EAST] > LEAF_CAPACITY) {
+            split(first + EAST, depth + 1, south, middleLatitude, middleLongitude, east);
+        }
+        if (counts[first + NORTH] > LEAF_CAPACITY) {
+            split(first + NORTH, depth + 1, middleLatitude, north, west, middleLongitude);
+        }
+        if (counts[first + NORTH + EAST] > LEAF_CAPACITY) {
+            split(first + NORTH + EAST, depth + 1, middleLatitude, north, middleLongitude, east);
+        }
+    }
+
+    /**
+     * Move every location in a group of four children and their subtrees into a leaf, and free the nodes.
+     *
+     * @param first the first of the four children
+     * @param leaf the leaf to move the locations into
+     */
+    private void absorb(final int first, final int leaf) {
+        for (int child = first; child < first + QUADRANTS; child++) {
+            if (children[child] != NONE) {
+                absorb(children[child], leaf);
+            } else {
+                int slot = heads[child];
+                while (slot != NONE) {
+                    int following = next[slot];
+                    link(slot, leaf);
+                    slot = following;
+                }
+            }
+        }
+        if (freeQuadCount == freeQuads.length) {
+            freeQuads = Arrays.copyOf(freeQuads, freeQuads.length * 2);
+        }
+        freeQuads[freeQuadCount++] = first;
+    }
+
+    /**
+     * Allocate a group of four empty leaves.
+     *
+     * @param parent the node that the leaves are children of
+     * @return the first of the four leaves
+     */
+    private int allocateQuad(final int parent) {
+        int first;
+        if (freeQuadCount > 0) {
+            first = freeQuads[--freeQuadCount];
+        } else {
+            if (nodeCount + QUADRANTS > children.length) {
+                int length = children.length * 2;
+                children = Arrays.copyOf(children, length);
+                parents = Arrays.copyOf(parents, length);
+                counts = Arrays.copyOf(counts, length);
+                heads = Arrays.copyOf(heads, length);
+            }
+            first = nodeCount;
+            nodeCount += QUADRANTS;
+        }
+        for (int child = first; child < first + QUADRANTS; child++) {
+            children[child] = NONE;
+            parents[child] = parent;
+            counts[child] = 0;
+            heads[child] = NONE;
+        }
+        return first;
+    }
+
+    /**
+     * Decide which child of a node a stored location belongs in.
+     *
+     * @param slot the slot holding the location
+     * @param middleLatitude the latitude splitting the node
+     * @param middleLongitude the longitude splitting the node
+     * @return the quadrant, combining the NORTH and EAST bits
+     */
+    private int quadrant(final int slot, final double middleLatitude, final double middleLongitude) {
+        int quadrant = 0;
+        if (latitudes[slot] >= middleLatitude) {
+            quadrant |= NORTH;
+        }
+        if (longitudes[slot] >= middleLongitude) {
+            quadrant |= EAST;
+        }
+        return quadrant;
+    }
+
+    /**
+     * Add a slot to the front of a leaf's list.
+     *
+     * @param slot the slot
+     * @param leaf the leaf
+     */
+    private void link(final int slot, final int leaf) {
+        next[slot] = heads[leaf];
+        previous[slot] = NONE;
+        if (heads[leaf] != NONE) {
+            previous[heads[leaf]] = slot;
+        }
+        heads[leaf] = slot;
+        leafOf[slot] = leaf;
+    }
+
+    /**
+     * Remove a slot from a leaf's list.
+     *
+     * @param slot the slot
+     * @param leaf the leaf
+     */
+    private void unlink(final int slot, final int leaf) {
+        if (previous[slot] != NONE) {
+            next[previous[slot]] = next[slot];
+        } else {
+            heads[leaf] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            previous[next[slot]] = previous[slot];
+        }
+        leafOf[slot] = NONE;
+    }
+}
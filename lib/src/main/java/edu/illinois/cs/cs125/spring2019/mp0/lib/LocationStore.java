@@ -0,0 +1,66 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Circular storage for location measurements.
+ * <p>
+ * Each slot holds a latitude, a longitude, and whether the slot contains a valid measurement, just like the three
+ * arrays passed to the Locator methods. Locator provides versions of its methods that work directly on any store,
+ * so the same queries run on LocationHistory, which keeps its slots in arrays on the Java heap, and on
+ * OffHeapLocationHistory, which keeps them in native memory.
+ */
+public interface LocationStore {
+
+    /**
+     * Add a new location, overwriting the oldest one if the store is full.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @return the index of the slot that the location was written to
+     */
+    int append(double latitude, double longitude);
+
+    /**
+     * Return the number of slots.
+     *
+     * @return the maximum number of locations this store can hold
+     */
+    int capacity();
+
+    /**
+     * Return the number of valid locations.
+     *
+     * @return the number of valid locations
+     */
+    int size();
+
+    /**
+     * Return the index of the most recent location.
+     *
+     * @return the slot holding the most recent location, or -1 if the store is empty
+     */
+    int currentIndex();
+
+    /**
+     * Return the latitude stored in a slot.
+     *
+     * @param index the slot index
+     * @return the latitude stored in that slot
+     */
+    double latitude(int index);
+
+    /**
+     * Return the longitude stored in a slot.
+     *
+     * @param index the slot index
+     * @return the longitude stored in that slot
+     */
+    double longitude(int index);
+
+    /**
+     * Return whether a slot holds a valid location.
+     *
+     * @param index the slot index
+     * @return true if the slot holds a valid location
+     */
+    boolean isValid(int index);
+}
@@ -1,7 +1,6 @@
 package edu.illinois.cs.cs125.spring2019.mp0.lib;
 
 import java.util.Arrays;
-import java.util.Random;
 
 /**
  * A class that runs implements several helper functions on location data.
@@ -23,8 +22,21 @@ public class Locator {
 
     public static final double MIN_LONGITUDE = -180.0;
 
-    /** Random number generator for use by this class. */
-    private static Random random = new Random();
+    /**
+     * Starting point for the search in farthestNorth.
+     * <p>
+     * This is south of every valid latitude, so any valid location replaces it. Only latitudes strictly greater than
+     * this value are ever reported as the farthest north.
+     */
+    static final double NORTH_SENTINEL = -100.0;
+
+    /**
+     * Random number source used when the caller does not provide one.
+     * <p>
+     * Each thread draws from its own generator, so threads generating random locations at the same time do not
+     * contend with each other the way they would using Math.random.
+     */
+    private static final RandomSource DEFAULT_RANDOM_SOURCE = RandomSource.threadLocal();
 
     /**
      * Determine which of a set of positions is the furthest north.
@@ -52,7 +64,7 @@ public class Locator {
         /* System.out.println(Arrays.toString(latitudes));
         System.out.println(Arrays.toString(longitudes));
         System.out.println(Arrays.toString(validLocations)); */
-        double north = -100.0;
+        double north = NORTH_SENTINEL;
         int northIndex = 0;
         boolean flag = false;
         for (int i = 0; i < latitudes.length; i++) {
@@ -111,6 +123,34 @@ public class Locator {
         return false;
     }
 
+    /**
+     * Determine which locations have been visited more than once.
+     * <p>
+     * This is a batch version of beenHere. Entry i of the returned array is true if location i is valid and the
+     * arrays contain another valid location equal to it, which is exactly the result that beenHere would return for
+     * every valid index. Invalid locations are always false.
+     * <p>
+     * Rather than comparing every pair of locations, each valid location is placed into an open-addressing hash
+     * table keyed by its coordinates. That makes the whole classification run in linear expected time, so callers
+     * that need an answer for every index should use this rather than calling beenHere in a loop.
+     *
+     * @param latitudes the array containing previous latitude measurements
+     * @param longitudes the array containing previous longitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return an array containing whether each location has a duplicate elsewhere in the arrays
+     */
+    public static boolean[] repeatedLocations(final double[] latitudes, final double[] longitudes,
+                                              final boolean[] validLocations) {
+        boolean[] repeated = new boolean[latitudes.length];
+        int[] table = new int[Coordinates.tableSizeFor(latitudes.length)];
+        for (int i = 0; i < latitudes.length; i++) {
+            if (validLocations[i]) {
+                markIfRepeated(i, latitudes, longitudes, table, repeated);
+            }
+        }
+        return repeated;
+    }
+
 
     /**
      * Generate a new random location based on the current position and a transition probability.
@@ -138,31 +178,342 @@ public class Locator {
     public static double[] nextRandomLocation(final double currentLatitude, final double currentLongitude,
                                        final double transitionProbability,
                                        final double latitudeChange, final double longitudeChange) {
-        /* System.out.println(currentLatitude);
-        System.out.println(currentLongitude);
-        System.out.println(transitionProbability);
-        System.out.println(latitudeChange);
-        System.out.println(longitudeChange); */
-        double finalLatitude = 0.0;
-        double finalLongitude = 0.0;
-        if (Math.random() <= transitionProbability) {
-            if (currentLatitude + latitudeChange > MAX_LATITUDE) {
-                finalLatitude = MAX_LATITUDE;
-            } else if (currentLatitude + latitudeChange < MIN_LATITUDE) {
-                finalLatitude = MIN_LATITUDE;
+        double[] result = new double[2];
+        nextRandomLocation(currentLatitude, currentLongitude, transitionProbability, latitudeChange, longitudeChange,
+            result);
+        return result;
+    }
+
+    /**
+     * Generate a new random location and store it in a caller-provided array.
+     * <p>
+     * This behaves exactly like the version of nextRandomLocation that returns a new array, but writes the latitude to
+     * index 0 and the longitude to index 1 of the passed array instead. Callers that generate many locations can
+     * reuse the same array every time, so no memory is allocated at all.
+     *
+     * @param currentLatitude the current latitude to possibly modify
+     * @param currentLongitude the current longitude to possibly modify
+     * @param transitionProbability the probability that the latitude and longitude will change
+     * @param latitudeChange the amount to change the latitude if it changes
+     * @param longitudeChange the amount to change the longitude if it changes
+     * @param result an array of at least two doubles that receives the new latitude and longitude
+     */
+    public static void nextRandomLocation(final double currentLatitude, final double currentLongitude,
+                                          final double transitionProbability,
+                                          final double latitudeChange, final double longitudeChange,
+                                          final double[] result) {
+        nextRandomLocation(currentLatitude, currentLongitude, transitionProbability, latitudeChange, longitudeChange,
+            result, DEFAULT_RANDOM_SOURCE);
+    }
+
+    /**
+     * Generate a new random location using a particular source of random numbers.
+     * <p>
+     * This behaves exactly like the version of nextRandomLocation that stores into a caller-provided array, but
+     * draws its random number from the passed source. Passing a seeded source makes the result reproducible.
+     *
+     * @param currentLatitude the current latitude to possibly modify
+     * @param currentLongitude the current longitude to possibly modify
+     * @param transitionProbability the probability that the latitude and longitude will change
+     * @param latitudeChange the amount to change the latitude if it changes
+     * @param longitudeChange the amount to change the longitude if it changes
+     * @param result an array of at least two doubles that receives the new latitude and longitude
+     * @param randomSource the source of random numbers to use
+     */
+    public static void nextRandomLocation(final double currentLatitude, final double currentLongitude,
+                                          final double transitionProbability,
+                                          final double latitudeChange, final double longitudeChange,
+                                          final double[] result, final RandomSource randomSource) {
+        if (randomSource.nextDouble() <= transitionProbability) {
+            result[0] = clamp(currentLatitude + latitudeChange, MIN_LATITUDE, MAX_LATITUDE);
+            result[1] = clamp(currentLongitude + longitudeChange, MIN_LONGITUDE, MAX_LONGITUDE);
+        } else {
+            result[0] = currentLatitude;
+            result[1] = currentLongitude;
+        }
+    }
+
+    /**
+     * Generate a sequence of random locations in place.
+     * <p>
+     * The passed arrays must already hold the starting location at index 0. Every later index is then filled with
+     * the result of calling nextRandomLocation on the location before it, so arrays of length N + 1 advance the walk
+     * by N steps. Nothing is allocated.
+     *
+     * @param latitudes the array holding the starting latitude that receives the generated latitudes
+     * @param longitudes the array holding the starting longitude that receives the generated longitudes
+     * @param transitionProbability the probability that the latitude and longitude will change at each step
+     * @param latitudeChange the amount to change the latitude at each step if it changes
+     * @param longitudeChange the amount to change the longitude at each step if it changes
+     */
+    public static void nextRandomLocations(final double[] latitudes, final double[] longitudes,
+                                           final double transitionProbability,
+                                           final double latitudeChange, final double longitudeChange) {
+        nextRandomLocations(latitudes, longitudes, transitionProbability, latitudeChange, longitudeChange,
+            DEFAULT_RANDOM_SOURCE);
+    }
+
+    /**
+     * Generate a sequence of random locations in place using a particular source of random numbers.
+     * <p>
+     * This behaves exactly like the version of nextRandomLocations without a source parameter, but draws its random
+     * numbers from the passed source.
+     *
+     * @param latitudes the array holding the starting latitude that receives the generated latitudes
+     * @param longitudes the array holding the starting longitude that receives the generated longitudes
+     * @param transitionProbability the probability that the latitude and longitude will change at each step
+     * @param latitudeChange the amount to change the latitude at each step if it changes
+     * @param longitudeChange the amount to change the longitude at each step if it changes
+     * @param randomSource the source of random numbers to use
+     */
+    public static void nextRandomLocations(final double[] latitudes, final double[] longitudes,
+                                           final double transitionProbability,
+                                           final double latitudeChange, final double longitudeChange,
+                                           final RandomSource randomSource) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitude and longitude arrays must be the same length");
+        }
+        for (int i = 1; i < latitudes.length; i++) {
+            if (randomSource.nextDouble() <= transitionProbability) {
+                latitudes[i] = clamp(latitudes[i - 1] + latitudeChange, MIN_LATITUDE, MAX_LATITUDE);
+                longitudes[i] = clamp(longitudes[i - 1] + longitudeChange, MIN_LONGITUDE, MAX_LONGITUDE);
             } else {
-                finalLatitude = currentLatitude + latitudeChange;
+                latitudes[i] = latitudes[i - 1];
+                longitudes[i] = longitudes[i - 1];
             }
-            if (currentLongitude + longitudeChange > MAX_LONGITUDE) {
-                finalLongitude = MAX_LONGITUDE;
-            } else if (currentLongitude + longitudeChange < MIN_LONGITUDE) {
-                finalLongitude = MIN_LONGITUDE;
-            } else {
-                finalLongitude = currentLongitude + longitudeChange;
+        }
+    }
+
+    /**
+     * Add one valid location to the table used by repeatedLocations.
+     * <p>
+     * Each table entry stores one plus the index of the first location seen with a given pair of coordinates, so
+     * that zero can mark an empty entry. If an equal location is already in the table both are marked as repeated.
+     *
+     * @param index the index of the location to add
+     * @param latitudes the array containing latitude measurements
+     * @param longitudes the array containing longitude measurements
+     * @param table the open-addressing table, whose length must be a power of two
+     * @param repeated the array receiving whether each location is repeated
+     */
+    private static void markIfRepeated(final int index, final double[] latitudes, final double[] longitudes,
+                                       final int[] table, final boolean[] repeated) {
+        double lat = latitudes[index];
+        double lon = longitudes[index];
+        if (!Coordinates.isComparable(lat, lon)) {
+            return;
+        }
+        int mask = table.length - 1;
+        int slot = Coordinates.hash(lat, lon) & mask;
+        while (table[slot] != 0) {
+            int first = table[slot] - 1;
+            if (latitudes[first] == lat && longitudes[first] == lon) {
+                repeated[first] = true;
+                repeated[index] = true;
+                return;
             }
-            return new double[] {finalLatitude, finalLongitude};
-        } else {
-            return new double[] {currentLatitude, currentLongitude};
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Determine which of a set of positions is the furthest north, using a packed validity mask.
+     * <p>
+     * This returns exactly what the boolean array version of farthestNorth returns. Because the mask stores 64
+     * locations in each word, runs of invalid locations are skipped a whole word at a time, which makes this much
+     * faster when most locations are invalid. Bits past the end of the arrays are ignored.
+     *
+     * @param latitudes array of previous latitude measurements
+     * @param longitudes array of previous longitude measurements
+     * @param validMask packed mask recording which locations are valid, as described in ValidityMask
+     * @return the index of the first valid position that is furthest north, or -1 if there is none
+     */
+    public static int farthestNorth(final double[] latitudes, final double[] longitudes, final long[] validMask) {
+        double north = NORTH_SENTINEL;
+        int northIndex = -1;
+        int words = Math.min(validMask.length, ValidityMask.words(latitudes.length));
+        for (int word = 0; word < words; word++) {
+            long bits = validMask[word];
+            int first = word << ValidityMask.WORD_SHIFT;
+            if (bits == -1L && first + Long.SIZE <= latitudes.length) {
+                // Every location in this word is valid, so scan them without any bit twiddling.
+                for (int i = first; i < first + Long.SIZE; i++) {
+                    if (latitudes[i] > north) {
+                        north = latitudes[i];
+                        northIndex = i;
+                    }
+                }
+                continue;
+            }
+            while (bits != 0) {
+                int i = first + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (i >= latitudes.length) {
+                    break;
+                }
+                if (latitudes[i] > north) {
+                    north = latitudes[i];
+                    northIndex = i;
+                }
+            }
+        }
+        return northIndex;
+    }
+
+    /**
+     * Determine whether you've already been in this exact spot, using a packed validity mask.
+     * <p>
+     * This returns exactly what the boolean array version of beenHere returns, while only visiting valid locations.
+     *
+     * @param currentIndex the index of the current location to compare against
+     * @param latitudes the array containing previous latitude measurements
+     * @param longitudes the array containing previous longitude measurements
+     * @param validMask packed mask recording which locations are valid, as described in ValidityMask
+     * @return true if the arrays contain another valid location equal to the current one
+     */
+    public static boolean beenHere(final int currentIndex, final double[] latitudes, final double[] longitudes,
+                                   final long[] validMask) {
+        double lat = latitudes[currentIndex];
+        double lon = longitudes[currentIndex];
+        int words = Math.min(validMask.length, ValidityMask.words(latitudes.length));
+        for (int word = 0; word < words; word++) {
+            long bits = validMask[word];
+            while (bits != 0) {
+                int i = (word << ValidityMask.WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (i >= latitudes.length) {
+                    break;
+                }
+                if (i != currentIndex && latitudes[i] == lat && longitudes[i] == lon) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determine which locations have been visited more than once, using a packed validity mask.
+     * <p>
+     * This returns exactly what the boolean array version of repeatedLocations returns, while only visiting valid
+     * locations.
+     *
+     * @param latitudes the array containing previous latitude measurements
+     * @param longitudes the array containing previous longitude measurements
+     * @param validMask packed mask recording which locations are valid, as described in ValidityMask
+     * @return an array containing whether each location has a duplicate elsewhere in the arrays
+     */
+    public static boolean[] repeatedLocations(final double[] latitudes, final double[] longitudes,
+                                              final long[] validMask) {
+        boolean[] repeated = new boolean[latitudes.length];
+        int[] table = new int[Coordinates.tableSizeFor(latitudes.length)];
+        int words = Math.min(validMask.length, ValidityMask.words(latitudes.length));
+        for (int word = 0; word < words; word++) {
+            long bits = validMask[word];
+            while (bits != 0) {
+                int i = (word << ValidityMask.WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (i >= latitudes.length) {
+                    break;
+                }
+                markIfRepeated(i, latitudes, longitudes, table, repeated);
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Determine which of the positions in a location store is the furthest north.
+     * <p>
+     * This returns exactly what the array version of farthestNorth returns, but reads the store directly so that
+     * stores that do not keep their locations in arrays, like OffHeapLocationHistory, never need to be copied.
+     *
+     * @param locations the store containing previous location measurements
+     * @return the index of the first valid position that is furthest north, or -1 if there is none
+     */
+    public static int farthestNorth(final LocationStore locations) {
+        double north = NORTH_SENTINEL;
+        int northIndex = -1;
+        for (int i = 0; i < locations.capacity(); i++) {
+            if (locations.isValid(i)) {
+                double latitude = locations.latitude(i);
+                if (latitude > north) {
+                    north = latitude;
+                    northIndex = i;
+                }
+            }
+        }
+        return northIndex;
+    }
+
+    /**
+     * Determine whether you've already been in this exact spot, reading from a location store.
+     * <p>
+     * This returns exactly what the array version of beenHere returns.
+     *
+     * @param currentIndex the index of the current location to compare against
+     * @param locations the store containing previous location measurements
+     * @return true if the store contains another valid location equal to the current one
+     */
+    public static boolean beenHere(final int currentIndex, final LocationStore locations) {
+        double lat = locations.latitude(currentIndex);
+        double lon = locations.longitude(currentIndex);
+        for (int i = 0; i < locations.capacity(); i++) {
+            if (i != currentIndex && locations.latitude(i) == lat && locations.longitude(i) == lon
+                && locations.isValid(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extend the random walk stored in a location store.
+     * <p>
+     * Starting from the store's most recent location, this repeatedly calls nextRandomLocation and appends each
+     * result, just like the app does while wandering. Locations are read from and written to the store directly.
+     *
+     * @param locations the store to extend, which must contain at least one location
+     * @param steps the number of locations to append
+     * @param transitionProbability the probability that the latitude and longitude will change at each step
+     * @param latitudeChange the amount to change the latitude at each step if it changes
+     * @param longitudeChange the amount to change the longitude at each step if it changes
+     * @param randomSource the source of random numbers to use
+     */
+    public static void nextRandomLocations(final LocationStore locations, final int steps,
+                                           final double transitionProbability,
+                                           final double latitudeChange, final double longitudeChange,
+                                           final RandomSource randomSource) {
+        int current = locations.currentIndex();
+        if (current == -1) {
+            throw new IllegalArgumentException("location store must contain a starting location");
+        }
+        double latitude = locations.latitude(current);
+        double longitude = locations.longitude(current);
+        for (int i = 0; i < steps; i++) {
+            if (randomSource.nextDouble() <= transitionProbability) {
+                latitude = clamp(latitude + latitudeChange, MIN_LATITUDE, MAX_LATITUDE);
+                longitude = clamp(longitude + longitudeChange, MIN_LONGITUDE, MAX_LONGITUDE);
+            }
+            locations.append(latitude, longitude);
+        }
+    }
+
+    /**
+     * Bound a value to within a valid range.
+     *
+     * @param value the value to bound
+     * @param min the smallest valid value
+     * @param max the largest valid value
+     * @return the value, or the nearest end of the range if it falls outside of it
+     */
+    static double clamp(final double value, final double min, final double max) {
+        if (value > max) {
+            return max;
+        } else if (value < min) {
+            return min;
         }
+        return value;
     }
 }
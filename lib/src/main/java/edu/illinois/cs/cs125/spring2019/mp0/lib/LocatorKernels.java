@@ -0,0 +1,143 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Data-parallel versions of Locator queries for large location histories.
+ * <p>
+ * Locator.farthestNorth makes a single pass in which every iteration depends on the result of the one before it: it
+ * can only tell whether a latitude is a new maximum once it knows the previous maximum. That serial dependency keeps
+ * the processor from doing more than one comparison at a time. The kernels here split the same work into two simpler
+ * passes. The first computes the maximum valid latitude using several independent accumulators, which the processor
+ * can update in parallel and which the JIT compiler can turn into conditional moves or SIMD instructions. The second
+ * finds the first valid index holding that maximum, which is a plain search that usually stops early.
+ * <p>
+ * The results are identical to Locator.farthestNorth, including its tie-breaking and its handling of NaN latitudes.
+ * ParallelLocator uses these kernels to scan each of its pieces.
+ */
+public final class LocatorKernels {
+
+    /** Number of independent accumulators used by the reduction. */
+    private static final int LANES = 4;
+
+    /** Offset of the second lane from the start of each group of LANES latitudes. */
+    private static final int LANE_1 = 1;
+
+    /** Offset of the third lane from the start of each group of LANES latitudes. */
+    private static final int LANE_2 = 2;
+
+    /** Offset of the fourth lane from the start of each group of LANES latitudes. */
+    private static final int LANE_3 = 3;
+
+    /** Not instantiable. */
+    private LocatorKernels() { }
+
+    /**
+     * Determine which of a set of positions is the furthest north.
+     * <p>
+     * Returns exactly what Locator.farthestNorth returns for the same arrays.
+     *
+     * @param latitudes array of previous latitude measurements
+     * @param longitudes array of previous longitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return the index of the first valid position that is furthest north, or -1 if there is none
+     */
+    public static int farthestNorth(final double[] latitudes, final double[] longitudes,
+                                    final boolean[] validLocations) {
+        return farthestNorth(latitudes, validLocations, 0, latitudes.length);
+    }
+
+    /**
+     * Determine which of a range of positions is the furthest north.
+     *
+     * @param latitudes array of latitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @param from first index of the range, inclusive
+     * @param to last index of the range, exclusive
+     * @return the index of the first valid position in the range that is furthest north, or -1 if there is none
+     */
+    static int farthestNorth(final double[] latitudes, final boolean[] validLocations, final int from,
+                             final int to) {
+        double north = maxValidLatitude(latitudes, validLocations, from, to);
+        if (!(north > Locator.NORTH_SENTINEL)) {
+            return -1;
+        }
+        for (int i = from; i < to; i++) {
+            if (validLocations[i] && latitudes[i] == north) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compute the largest valid latitude in a range.
+     * <p>
+     * Invalid slots and NaN latitudes are skipped. If no valid latitude is larger than Locator.NORTH_SENTINEL the
+     * sentinel itself is returned.
+     *
+     * @param latitudes array of latitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @param from first index of the range, inclusive
+     * @param to last index of the range, exclusive
+     * @return the largest valid latitude, or the sentinel if there is none
+     */
+    static double maxValidLatitude(final double[] latitudes, final boolean[] validLocations, final int from,
+                                   final int to) {
+        double lane0 = Locator.NORTH_SENTINEL;
+        double lane1 = Locator.NORTH_SENTINEL;
+        double lane2 = Locator.NORTH_SENTINEL;
+        double lane3 = Locator.NORTH_SENTINEL;
+        int unrolled = to - ((to - from) % LANES);
+        /*
+         * Comparisons against NaN are always false, so a NaN latitude never replaces an accumulator, just as it never
+         * replaces the running maximum in Locator.farthestNorth.
+         */
+        for (int i = from; i < unrolled; i += LANES) {
+            double value0 = masked(latitudes[i], validLocations[i]);
+            double value1 = masked(latitudes[i + LANE_1], validLocations[i + LANE_1]);
+            double value2 = masked(latitudes[i + LANE_2], validLocations[i + LANE_2]);
+            double value3 = masked(latitudes[i + LANE_3], validLocations[i + LANE_3]);
+            if (value0 > lane0) {
+                lane0 = value0;
+            }
+            if (value1 > lane1) {
+                lane1 = value1;
+            }
+            if (value2 > lane2) {
+                lane2 = value2;
+            }
+            if (value3 > lane3) {
+                lane3 = value3;
+            }
+        }
+        for (int i = unrolled; i < to; i++) {
+            double value = masked(latitudes[i], validLocations[i]);
+            if (value > lane0) {
+                lane0 = value;
+            }
+        }
+        if (lane1 > lane0) {
+            lane0 = lane1;
+        }
+        if (lane3 > lane2) {
+            lane2 = lane3;
+        }
+        if (lane2 > lane0) {
+            lane0 = lane2;
+        }
+        return lane0;
+    }
+
+    /**
+     * Replace the latitude of an invalid slot with the sentinel.
+     *
+     * @param latitude the latitude stored in the slot
+     * @param valid whether the slot is valid
+     * @return the latitude if the slot is valid, otherwise the sentinel
+     */
+    private static double masked(final double latitude, final boolean valid) {
+        if (valid) {
+            return latitude;
+        }
+        return Locator.NORTH_SENTINEL;
+    }
+}
@@ -0,0 +1,243 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Keeps track of how each saved location should be drawn, and reports only the slots whose drawing has changed.
+ * <p>
+ * The app draws one marker per slot, colored by its class: farthest north, the current location, a location we have
+ * been near before, or any other location. Redrawing every marker after each new location costs one map operation per
+ * saved location, even though almost all of them look the same as before. This class follows a LocationHistory and
+ * works out which slots a change could affect, so the app only has to touch those markers.
+ * <p>
+ * A new location can only change the class of its own slot, of the previous current location, of the old and new
+ * farthest north locations, and of the slots within the proximity tolerance of it, which may now have been near
+ * something. An evicted location can likewise only change the slots within the tolerance of where it was. Those
+ * slots are marked as dirty when the history changes, and changes reclassifies just the dirty slots, so the work
+ * done per location depends on how many slots are nearby rather than on the size of the history.
+ * <p>
+ * The FarthestNorthTracker and ProximityIndex passed to the constructor must follow the same history. They are only
+ * consulted by changes, so it does not matter in what order the listeners are registered.
+ */
+public final class MarkerClassification implements LocationHistory.Listener {
+
+    /** Class of a slot that does not hold a valid location and should not be drawn. */
+    public static final int HIDDEN = 0;
+
+    /** Class of a location that is none of the others. */
+    public static final int OTHER = 1;
+
+    /** Class of a location that is within the proximity tolerance of another one. */
+    public static final int REPEATED = 2;
+
+    /** Class of the most recent location. */
+    public static final int CURRENT = 3;
+
+    /** Class of the location farthest north, which takes priority over every other class. */
+    public static final int FARTHEST_NORTH = 4;
+
+    /** Marker for no slot. */
+    private static final int NONE = -1;
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** Finds the farthest north location. */
+    private final FarthestNorthTracker farthestNorthTracker;
+
+    /** Finds locations near each other. */
+    private final ProximityIndex proximityIndex;
+
+    /** The class of each slot as of the last call to changes. */
+    private final int[] classes;
+
+    /** Whether each slot holds a valid location. */
+    private final boolean[] validLocations;
+
+    /** Whether each slot needs to be reclassified. */
+    private final boolean[] dirty;
+
+    /** Whether each slot has been written since the last call to changes. */
+    private final boolean[] moved;
+
+    /** The dirty slots, in the order they were marked. */
+    private final int[] dirtySlots;
+
+    /** Number of dirty slots. */
+    private int dirtyCount = 0;
+
+    /** Reused to hold the slots near a changed location. */
+    private final int[] neighbors;
+
+    /** Slot of the most recent location, or NONE. */
+    private int currentIndex = NONE;
+
+    /** Farthest north slot as of the last call to changes, or NONE. */
+    private int reportedNorth = NONE;
+
+    /**
+     * Create a new classification in which every slot is hidden.
+     *
+     * @param setCapacity the number of slots to track
+     * @param setFarthestNorthTracker a tracker following the same history
+     * @param setProximityIndex a proximity index following the same history
+     */
+    public MarkerClassification(final int setCapacity, final FarthestNorthTracker setFarthestNorthTracker,
+                                final ProximityIndex setProximityIndex) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        farthestNorthTracker = setFarthestNorthTracker;
+        proximityIndex = setProximityIndex;
+        classes = new int[capacity];
+        validLocations = new boolean[capacity];
+        dirty = new boolean[capacity];
+        moved = new boolean[capacity];
+        dirtySlots = new int[capacity];
+        neighbors = new int[capacity];
+    }
+
+    /**
+     * Reclassify the slots that may have changed since the last call, and report the ones that did.
+     * <p>
+     * A slot is reported if its class is different from the one last reported, or if a new location was written to
+     * it, in which case its marker has to move even if its class is the same. Both result arrays must have room for
+     * one entry per slot.
+     *
+     * @param changedSlots array to receive the changed slots
+     * @param movedSlots array to receive whether each changed slot holds a new location
+     * @return the number of changed slots
+     */
+    public int changes(final int[] changedSlots, final boolean[] movedSlots) {
+        int north = farthestNorthTracker.farthestNorth();
+        if (north != reportedNorth) {
+            markDirty(reportedNorth);
+            markDirty(north);
+            reportedNorth = north;
+        }
+        int count = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int slot = dirtySlots[i];
+            int slotClass = classify(slot, north);
+            if (slotClass != classes[slot] || moved[slot]) {
+                classes[slot] = slotClass;
+                changedSlots[count] = slot;
+                movedSlots[count] = moved[slot];
+                count++;
+            }
+            dirty[slot] = false;
+            moved[slot] = false;
+        }
+        dirtyCount = 0;
+        return count;
+    }
+
+    /**
+     * Return the class of a slot as of the last call to changes.
+     *
+     * @param index the slot
+     * @return one of HIDDEN, OTHER, REPEATED, CURRENT, or FARTHEST_NORTH
+     */
+    public int classOf(final int index) {
+        checkIndex(index);
+        return classes[index];
+    }
+
+    /**
+     * Return the number of slots being tracked.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Record that a location is leaving the history.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        checkIndex(index);
+        validLocations[index] = false;
+        markDirty(index);
+        markNeighbors(latitude, longitude);
+    }
+
+    /**
+     * Record that a new location was added to the history.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        checkIndex(index);
+        markDirty(currentIndex);
+        currentIndex = index;
+        validLocations[index] = true;
+        moved[index] = true;
+        markDirty(index);
+        markNeighbors(latitude, longitude);
+    }
+
+    /**
+     * Work out the class of one slot from scratch.
+     *
+     * @param index the slot
+     * @param north the farthest north slot
+     * @return the slot's class
+     */
+    private int classify(final int index, final int north) {
+        if (!validLocations[index]) {
+            return HIDDEN;
+        } else if (index == north) {
+            return FARTHEST_NORTH;
+        } else if (index == currentIndex) {
+            return CURRENT;
+        } else if (proximityIndex.beenNear(index)) {
+            return REPEATED;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Mark every slot within the tolerance of a location as dirty.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     */
+    private void markNeighbors(final double latitude, final double longitude) {
+        int count = proximityIndex.findAllNear(latitude, longitude, neighbors);
+        for (int i = 0; i < count; i++) {
+            markDirty(neighbors[i]);
+        }
+    }
+
+    /**
+     * Mark a slot as needing to be reclassified.
+     *
+     * @param index the slot, or NONE to do nothing
+     */
+    private void markDirty(final int index) {
+        if (index == NONE || dirty[index]) {
+            return;
+        }
+        dirty[index] = true;
+        dirtySlots[dirtyCount++] = index;
+    }
+
+    /**
+     * Check that a slot is inside the capacity.
+     *
+     * @param index the slot
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+    }
+}
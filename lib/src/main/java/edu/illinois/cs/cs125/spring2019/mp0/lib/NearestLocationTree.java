@@ -0,0 +1,339 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Finds the stored location nearest to a query location.
+ * <p>
+ * This is a k-d tree built once over a snapshot of the valid locations. Each location is converted to a point on the
+ * unit sphere, and the tree splits those points by x, y, or z. The straight-line distance between two points on the
+ * sphere grows with the distance along its surface, so the nearest point in the tree is also the nearest location by
+ * haversine distance. Working in three dimensions this way means longitudes wrap around at the antimeridian and the
+ * poles need no special handling, which a tree over raw latitude and longitude would get wrong.
+ * <p>
+ * The tree is balanced and stored implicitly in flat arrays: the points in each subtree occupy a contiguous range,
+ * with the subtree's root at the middle of the range and its two children in the halves to either side. So the
+ * tree needs no node objects and no pointers, and a query visits about log n points.
+ * <p>
+ * The tree does not change after it is built. When the history changes, build a new tree, for example on a
+ * background thread, and switch over to it once it is ready. Trees can be queried from many threads at once.
+ */
+public final class NearestLocationTree {
+
+    /**
+     * The nearest location found by a query.
+     */
+    public static final class Result {
+
+        /** The slot holding the nearest location. */
+        private final int index;
+
+        /** The distance to the nearest location, in meters. */
+        private final double distanceMeters;
+
+        /**
+         * Create a new result.
+         *
+         * @param setIndex the slot holding the nearest location
+         * @param setDistanceMeters the distance to that location, in meters
+         */
+        Result(final int setIndex, final double setDistanceMeters) {
+            index = setIndex;
+            distanceMeters = setDistanceMeters;
+        }
+
+        /**
+         * Return the slot holding the nearest location.
+         *
+         * @return the slot index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Return the distance to the nearest location.
+         *
+         * @return the great-circle distance, in meters
+         */
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+    }
+
+    /** Marker for no location. */
+    private static final int NONE = -1;
+
+    /** Number of coordinates in each point. */
+    private static final int DIMENSIONS = 3;
+
+    /** Coordinates of each point, by axis then by position. */
+    private final double[][] points;
+
+    /** The slot holding the location at each position. */
+    private final int[] slots;
+
+    /** The axis that the subtree rooted at each position is split by. */
+    private final byte[] axes;
+
+    /**
+     * Create a tree from existing location arrays.
+     *
+     * @param latitudes the array containing latitude measurements
+     * @param longitudes the array containing longitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     */
+    public NearestLocationTree(final double[] latitudes, final double[] longitudes,
+                               final boolean[] validLocations) {
+        int count = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (validLocations[i] && Coordinates.isComparable(latitudes[i], longitudes[i])) {
+                count++;
+            }
+        }
+        points = new double[DIMENSIONS][count];
+        slots = new int[count];
+        axes = new byte[count];
+        double[] point = new double[DIMENSIONS];
+        int position = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (validLocations[i] && Coordinates.isComparable(latitudes[i], longitudes[i])) {
+                toPoint(latitudes[i], longitudes[i], point);
+                for (int axis = 0; axis < DIMENSIONS; axis++) {
+                    points[axis][position] = point[axis];
+                }
+                slots[position] = i;
+                position++;
+            }
+        }
+        build(0, count);
+    }
+
+    /**
+     * Create a tree from the valid locations in a store.
+     *
+     * @param store the locations
+     * @return a new tree containing every valid location in the store
+     */
+    public static NearestLocationTree of(final LocationStore store) {
+        double[] latitudes = new double[store.capacity()];
+        double[] longitudes = new double[store.capacity()];
+        boolean[] validLocations = new boolean[store.capacity()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = store.latitude(i);
+            longitudes[i] = store.longitude(i);
+            validLocations[i] = store.isValid(i);
+        }
+        return new NearestLocationTree(latitudes, longitudes, validLocations);
+    }
+
+    /**
+     * Return the number of locations in the tree.
+     *
+     * @return the number of valid locations that the tree was built from
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * Find the location nearest to a query location.
+     *
+     * @param latitude the query latitude
+     * @param longitude the query longitude
+     * @return the nearest location, or null if the tree is empty or the query has a NaN coordinate
+     */
+    public Result nearest(final double latitude, final double longitude) {
+        return nearest(latitude, longitude, NONE);
+    }
+
+    /**
+     * Find the location nearest to a query location, ignoring one slot.
+     * <p>
+     * Use this to find the nearest previously visited location to the current one, by ignoring the current slot.
+     *
+     * @param latitude the query latitude
+     * @param longitude the query longitude
+     * @param exclude a slot to ignore, or -1 to consider every slot
+     * @return the nearest location, or null if there is none
+     */
+    public Result nearest(final double latitude, final double longitude, final int exclude) {
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return null;
+        }
+        double[] query = new double[DIMENSIONS];
+        toPoint(latitude, longitude, query);
+        int best = search(0, slots.length, query, exclude, NONE);
+        if (best == NONE) {
+            return null;
+        }
+        double chord = Math.sqrt(squaredDistance(best, query));
+        double angle = 2 * Math.asin(Math.min(1.0, chord / 2));
+        return new Result(slots[best], angle * Haversine.EARTH_RADIUS_METERS);
+    }
+
+    /**
+     * Search one subtree for a point closer than the best found so far.
+     *
+     * @param from the first position of the subtree, inclusive
+     * @param to the last position of the subtree, exclusive
+     * @param query the query point
+     * @param exclude a slot to ignore
+     * @param best the position of the closest point found so far, or NONE
+     * @return the position of the closest point found, or NONE
+     */
+    private int search(final int from, final int to, final double[] query, final int exclude, final int best) {
+        if (from >= to) {
+            return best;
+        }
+        int middle = (from + to) >>> 1;
+        int closest = best;
+        if (slots[middle] != exclude
+            && (closest == NONE || squaredDistance(middle, query) < squaredDistance(closest, query))) {
+            closest = middle;
+        }
+        int axis = axes[middle];
+        double difference = query[axis] - points[axis][middle];
+        if (difference < 0) {
+            closest = search(from, middle, query, exclude, closest);
+            if (closest == NONE || difference * difference < squaredDistance(closest, query)) {
+                closest = search(middle + 1, to, query, exclude, closest);
+            }
+        } else {
+            closest = search(middle + 1, to, query, exclude, closest);
+            if (closest == NONE || difference * difference < squaredDistance(closest, query)) {
+                closest = search(from, middle, query, exclude, closest);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Arrange the points in a range into a balanced subtree.
+     *
+     * @param from the first position of the range, inclusive
+     * @param to the last position of the range, exclusive
+     */
+    private void build(final int from, final int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = widestAxis(from, to);
+        int middle = (from + to) >>> 1;
+        select(axis, from, to - 1, middle);
+        axes[middle] = (byte) axis;
+        build(from, middle);
+        build(middle + 1, to);
+    }
+
+    /**
+     * Find the axis along which the points in a range are most spread out.
+     *
+     * @param from the first position of the range, inclusive
+     * @param to the last position of the range, exclusive
+     * @return the axis with the largest extent
+     */
+    private int widestAxis(final int from, final int to) {
+        int widest = 0;
+        double widestExtent = -1;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double min = points[axis][from];
+            double max = min;
+            for (int i = from + 1; i < to; i++) {
+                min = Math.min(min, points[axis][i]);
+                max = Math.max(max, points[axis][i]);
+            }
+            if (max - min > widestExtent) {
+                widest = axis;
+                widestExtent = max - min;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Reorder a range so that the point at a target position is where it would be if the range were sorted along an
+     * axis, with no larger points before it and no smaller points after it.
+     *
+     * @param axis the axis to sort along
+     * @param first the first position of the range, inclusive
+     * @param last the last position of the range, inclusive
+     * @param target the position to fill
+     */
+    private void select(final int axis, final int first, final int last, final int target) {
+        double[] keys = points[axis];
+        int low = first;
+        int high = last;
+        while (low < high) {
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                high = j;
+            } else if (target >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swap two points.
+     *
+     * @param i the first position
+     * @param j the second position
+     */
+    private void swap(final int i, final int j) {
+        for (double[] coordinates : points) {
+            double coordinate = coordinates[i];
+            coordinates[i] = coordinates[j];
+            coordinates[j] = coordinate;
+        }
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+    }
+
+    /**
+     * Compute the point on the unit sphere for a location.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param point array to receive the x, y, and z coordinates
+     */
+    private static void toPoint(final double latitude, final double longitude, final double[] point) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        point[0] = Math.cos(phi) * Math.cos(lambda);
+        point[1] = Math.cos(phi) * Math.sin(lambda);
+        point[2] = Math.sin(phi);
+    }
+
+    /**
+     * Compute the squared straight-line distance from a stored point to a query point.
+     *
+     * @param position the position of the stored point
+     * @param query the query point
+     * @return the squared distance
+     */
+    private double squaredDistance(final int position, final double[] query) {
+        double sum = 0;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double difference = points[axis][position] - query[axis];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+}
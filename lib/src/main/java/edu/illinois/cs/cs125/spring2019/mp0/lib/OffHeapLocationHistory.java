@@ -0,0 +1,186 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size history of location measurements stored outside of the Java heap.
+ * <p>
+ * This behaves exactly like LocationHistory, but keeps its slots in a single direct ByteBuffer rather than in Java
+ * arrays. Direct buffers are allocated in native memory, so a history of tens of millions of locations neither grows
+ * the heap nor has to be scanned or copied by the garbage collector.
+ * <p>
+ * The buffer is laid out in little-endian byte order as three consecutive regions: capacity latitudes stored as
+ * 8-byte doubles, then capacity longitudes stored the same way, then one flag byte per slot. The lowest bit of a
+ * slot's flag byte is set when the slot holds a valid location. Keeping each column contiguous means scans over one
+ * column, like the latitudes read by Locator.farthestNorth, read memory sequentially.
+ */
+public final class OffHeapLocationHistory implements LocationStore {
+
+    /** Bytes used by each slot: a latitude, a longitude, and a flag byte. */
+    public static final int BYTES_PER_SLOT = 2 * Double.BYTES + 1;
+
+    /** Largest capacity whose buffer still fits in a single ByteBuffer. */
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / BYTES_PER_SLOT;
+
+    /** Flag bit set for slots holding a valid location. */
+    private static final byte VALID_FLAG = 1;
+
+    /** Number of slots. */
+    private final int capacity;
+
+    /** The whole buffer. */
+    private final ByteBuffer buffer;
+
+    /** View of the latitude region. */
+    private final DoubleBuffer latitudes;
+
+    /** View of the longitude region. */
+    private final DoubleBuffer longitudes;
+
+    /** View of the flag region. */
+    private final ByteBuffer flags;
+
+    /** Index of the most recent location, or -1 if there is none. */
+    private int currentIndex = -1;
+
+    /** Number of valid locations. */
+    private int size = 0;
+
+    /** Objects notified about changes. */
+    private final List<LocationHistory.Listener> listeners = new ArrayList<>();
+
+    /**
+     * Create a new empty history.
+     *
+     * @param setCapacity the number of locations to keep
+     */
+    public OffHeapLocationHistory(final int setCapacity) {
+        if (setCapacity < 1 || setCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        capacity = setCapacity;
+        buffer = ByteBuffer.allocateDirect(capacity * BYTES_PER_SLOT).order(ByteOrder.LITTLE_ENDIAN);
+        int columnBytes = capacity * Double.BYTES;
+        latitudes = region(0, columnBytes).asDoubleBuffer();
+        longitudes = region(columnBytes, 2 * columnBytes).asDoubleBuffer();
+        flags = region(2 * columnBytes, buffer.capacity());
+    }
+
+    /**
+     * Return a little-endian view of part of the buffer.
+     *
+     * @param from the first byte of the region, inclusive
+     * @param to the last byte of the region, exclusive
+     * @return a view sharing the buffer's memory
+     */
+    private ByteBuffer region(final int from, final int to) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(from);
+        view.limit(to);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Register an object to be notified about changes to this history.
+     *
+     * @param listener the object to notify
+     */
+    public void addListener(final LocationHistory.Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public int append(final double latitude, final double longitude) {
+        currentIndex = (currentIndex + 1) % capacity;
+        if (isValid(currentIndex)) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onEvict(currentIndex, latitudes.get(currentIndex), longitudes.get(currentIndex));
+            }
+        } else {
+            size++;
+        }
+        latitudes.put(currentIndex, latitude);
+        longitudes.put(currentIndex, longitude);
+        flags.put(currentIndex, VALID_FLAG);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onAppend(currentIndex, latitude, longitude);
+        }
+        return currentIndex;
+    }
+
+    /**
+     * Remove every location.
+     */
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            if (isValid(i)) {
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).onEvict(i, latitudes.get(i), longitudes.get(i));
+                }
+                flags.put(i, (byte) 0);
+            }
+        }
+        currentIndex = -1;
+        size = 0;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int currentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Convert a position in insertion order to a slot index.
+     *
+     * @param position the position in insertion order, from 0 (oldest) to size() - 1 (most recent)
+     * @return the index of the slot holding that location
+     */
+    public int indexOf(final int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + " is outside size " + size);
+        }
+        int index = currentIndex - (size - 1) + position;
+        if (index < 0) {
+            index += capacity;
+        }
+        return index;
+    }
+
+    @Override
+    public double latitude(final int index) {
+        return latitudes.get(index);
+    }
+
+    @Override
+    public double longitude(final int index) {
+        return longitudes.get(index);
+    }
+
+    @Override
+    public boolean isValid(final int index) {
+        return (flags.get(index) & VALID_FLAG) != 0;
+    }
+
+    /**
+     * Return a read-only view of the whole buffer, in the layout described above.
+     *
+     * @return a read-only view sharing this history's memory
+     */
+    public ByteBuffer buffer() {
+        return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,209 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel versions of Locator queries for very large location arrays.
+ * <p>
+ * Each query splits its arrays in half repeatedly until the pieces are smaller than a split threshold, scans the
+ * pieces on the threads of a ForkJoinPool, and then merges the partial results. Splitting has a cost, so for small
+ * arrays the sequential Locator methods are faster. The threshold controls where that trade-off falls: pieces
+ * smaller than it are always scanned sequentially.
+ * <p>
+ * Results are identical to the sequential methods. In particular, when merging two partial farthest north results
+ * the one from the lower half of the array wins ties, so the first index is still returned.
+ */
+public final class ParallelLocator {
+
+    /** Default minimum number of locations handed to a single task. */
+    public static final int DEFAULT_SPLIT_THRESHOLD = 65536;
+
+    /** The pool used to run tasks. */
+    private final ForkJoinPool pool;
+
+    /** Ranges at or below this size are scanned sequentially. */
+    private final int splitThreshold;
+
+    /**
+     * Create a parallel locator that uses the common pool and the default split threshold.
+     */
+    public ParallelLocator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    /**
+     * Create a parallel locator.
+     *
+     * @param setPool the pool used to run tasks
+     * @param setSplitThreshold ranges at or below this size are scanned sequentially
+     */
+    public ParallelLocator(final ForkJoinPool setPool, final int setSplitThreshold) {
+        if (setSplitThreshold < 1) {
+            throw new IllegalArgumentException("split threshold must be positive");
+        }
+        pool = setPool;
+        splitThreshold = setSplitThreshold;
+    }
+
+    /**
+     * Return the split threshold.
+     *
+     * @return ranges at or below this size are scanned sequentially
+     */
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * Determine which of a set of positions is the furthest north.
+     * <p>
+     * Returns exactly what Locator.farthestNorth returns for the same arrays.
+     *
+     * @param latitudes array of previous latitude measurements
+     * @param longitudes array of previous longitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return the index of the first valid position that is furthest north, or -1 if there is none
+     */
+    public int farthestNorth(final double[] latitudes, final double[] longitudes,
+                             final boolean[] validLocations) {
+        return pool.invoke(new FarthestNorthTask(latitudes, validLocations, 0, latitudes.length));
+    }
+
+    /**
+     * Determine whether you've already been in this exact spot.
+     * <p>
+     * Returns exactly what Locator.beenHere returns for the same arrays.
+     *
+     * @param currentIndex the index of the current location to compare against
+     * @param latitudes the array containing previous latitude measurements
+     * @param longitudes the array containing previous longitude measurements
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return true if the array contains another valid location equal to the current one
+     */
+    public boolean beenHere(final int currentIndex, final double[] latitudes, final double[] longitudes,
+                            final boolean[] validLocations) {
+        return pool.invoke(new BeenHereTask(currentIndex, latitudes, longitudes, validLocations,
+            0, latitudes.length));
+    }
+
+    /** Task that finds the first farthest north index in a range. */
+    private final class FarthestNorthTask extends RecursiveTask<Integer> {
+
+        /** Serialization version, required because ForkJoinTask is Serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** Array of latitude measurements. */
+        private final double[] latitudes;
+
+        /** Whether each location is valid. */
+        private final boolean[] validLocations;
+
+        /** First index of the range, inclusive. */
+        private final int from;
+
+        /** Last index of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Create a new task.
+         *
+         * @param setLatitudes array of latitude measurements
+         * @param setValidLocations whether each location is valid
+         * @param setFrom first index of the range, inclusive
+         * @param setTo last index of the range, exclusive
+         */
+        FarthestNorthTask(final double[] setLatitudes, final boolean[] setValidLocations,
+                          final int setFrom, final int setTo) {
+            latitudes = setLatitudes;
+            validLocations = setValidLocations;
+            from = setFrom;
+            to = setTo;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= splitThreshold) {
+                return LocatorKernels.farthestNorth(latitudes, validLocations, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            FarthestNorthTask lower = new FarthestNorthTask(latitudes, validLocations, from, middle);
+            FarthestNorthTask upper = new FarthestNorthTask(latitudes, validLocations, middle, to);
+            upper.fork();
+            int lowerIndex = lower.compute();
+            int upperIndex = upper.join();
+            if (lowerIndex == -1) {
+                return upperIndex;
+            }
+            if (upperIndex != -1 && latitudes[upperIndex] > latitudes[lowerIndex]) {
+                return upperIndex;
+            }
+            return lowerIndex;
+        }
+    }
+
+    /** Task that looks for another valid location equal to the current one in a range. */
+    private final class BeenHereTask extends RecursiveTask<Boolean> {
+
+        /** Serialization version, required because ForkJoinTask is Serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** Index of the current location. */
+        private final int currentIndex;
+
+        /** Array of latitude measurements. */
+        private final double[] latitudes;
+
+        /** Array of longitude measurements. */
+        private final double[] longitudes;
+
+        /** Whether each location is valid. */
+        private final boolean[] validLocations;
+
+        /** First index of the range, inclusive. */
+        private final int from;
+
+        /** Last index of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Create a new task.
+         *
+         * @param setCurrentIndex index of the current location
+         * @param setLatitudes array of latitude measurements
+         * @param setLongitudes array of longitude measurements
+         * @param setValidLocations whether each location is valid
+         * @param setFrom first index of the range, inclusive
+         * @param setTo last index of the range, exclusive
+         */
+        BeenHereTask(final int setCurrentIndex, final double[] setLatitudes, final double[] setLongitudes,
+                     final boolean[] setValidLocations, final int setFrom, final int setTo) {
+            currentIndex = setCurrentIndex;
+            latitudes = setLatitudes;
+            longitudes = setLongitudes;
+            validLocations = setValidLocations;
+            from = setFrom;
+            to = setTo;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from <= splitThreshold) {
+                double lat = latitudes[currentIndex];
+                double lon = longitudes[currentIndex];
+                for (int i = from; i < to; i++) {
+                    if (latitudes[i] == lat && longitudes[i] == lon && validLocations[i] && i != currentIndex) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            int middle = (from + to) >>> 1;
+            BeenHereTask lower = new BeenHereTask(currentIndex, latitudes, longitudes, validLocations, from, middle);
+            BeenHereTask upper = new BeenHereTask(currentIndex, latitudes, longitudes, validLocations, middle, to);
+            upper.fork();
+            boolean found = lower.compute();
+            return upper.join() || found;
+        }
+    }
+}
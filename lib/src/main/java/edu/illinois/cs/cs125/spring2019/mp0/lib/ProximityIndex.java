@@ -0,0 +1,398 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+
+/**
+ * Answers whether you have already been near a location, within a tolerance given in meters.
+ * <p>
+ * Locator.beenHere only reports exact repeats. Real GPS fixes almost never repeat bit-for-bit, even when you have not
+ * moved, so this class instead asks whether any other valid location lies within a tolerance distance.
+ * <p>
+ * Locations are bucketed into a grid whose cells are as tall as the tolerance, and at least as wide, rounded up so
+ * that a whole number of columns fits exactly around the globe. Any location within the tolerance of a query must
+ * then lie in the query's row of cells or in one of the rows directly above or below it, and in a range of columns
+ * that widens toward the poles, where degrees of longitude get shorter. Only the locations in those cells are checked
+ * using the haversine distance, so each query takes constant expected time no matter how many locations are stored.
+ * The cells that actually contain locations are kept in a hash table, and the locations in each cell form a
+ * doubly-linked list threaded through int arrays, so updates are also constant time.
+ * <p>
+ * Close to a pole the range of columns grows with one over the cosine of the latitude until it covers every
+ * longitude, and with a small tolerance there can be millions of columns. So the rows near each pole are not split
+ * into columns at all: each is a single cap cell. The cap starts wherever a query's range would grow past
+ * MAX_SCANNED_COLUMNS columns, so no query ever looks at more than three times that many cells. With the default
+ * bound the cap only covers the last half degree or so of latitude around each pole, whatever the tolerance.
+ * <p>
+ * Longitudes wrap around at the antimeridian, so locations on either side of 180 degrees are found. Locations with a
+ * NaN coordinate are never near anything.
+ */
+public final class ProximityIndex implements LocationHistory.Listener {
+
+    /** Most columns a query scans in any row outside the polar caps. */
+    public static final int MAX_SCANNED_COLUMNS = 256;
+
+    /** Marker for the end of a list. */
+    private static final int NONE = -1;
+
+    /** Relative margin added to the search radius to absorb rounding error. */
+    private static final double SLACK = 1e-9;
+
+    /**
+     * Smallest number of rows at each pole stored as a single cap cell. Every query whose range of columns covers the
+     * whole globe only looks at rows within three of a pole.
+     */
+    private static final int POLAR_ROWS = 4;
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** The tolerance, in meters. */
+    private final double toleranceMeters;
+
+    /** Height of a grid cell, in degrees. */
+    private final double cellDegrees;
+
+    /** Width of a grid cell, in degrees, which divides 360 exactly. */
+    private final double columnDegrees;
+
+    /** Number of columns needed to wrap around the globe. */
+    private final long columns;
+
+    /** Largest row index. */
+    private final long maxRow;
+
+    /** Number of rows at each pole stored as a single cap cell. */
+    private final long polarRows;
+
+    /** The latitude stored in each slot, valid or not. */
+    private final double[] latitudes;
+
+    /** The longitude stored in each slot, valid or not. */
+    private final double[] longitudes;
+
+    /** Whether each slot is valid and stored in a cell. */
+    private final boolean[] indexed;
+
+    /** The cell key of each indexed slot. */
+    private final long[] cellOf;
+
+    /** Next slot in the same cell. */
+    private final int[] next;
+
+    /** Previous slot in the same cell. */
+    private final int[] previous;
+
+    /** Reused to hold the result of queries that only need one slot. */
+    private final int[] found = new int[1];
+
+    /** First slot in each non-empty cell. */
+    private final CellTable heads;
+
+    /**
+     * Create a new index with every slot invalid.
+     *
+     * @param setCapacity the number of slots to track
+     * @param setToleranceMeters locations closer than this, in meters, count as the same place
+     */
+    public ProximityIndex(final int setCapacity, final double setToleranceMeters) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        if (!(setToleranceMeters > 0) || Double.isInfinite(setToleranceMeters)) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        capacity = setCapacity;
+        toleranceMeters = setToleranceMeters;
+        cellDegrees = Math.min(Locator.MAX_LATITUDE, toleranceMeters / Haversine.METERS_PER_DEGREE);
+        columns = Math.max(1, (long) Math.floor((Locator.MAX_LONGITUDE - Locator.MIN_LONGITUDE) / cellDegrees));
+        columnDegrees = (Locator.MAX_LONGITUDE - Locator.MIN_LONGITUDE) / columns;
+        maxRow = (long) Math.floor((Locator.MAX_LATITUDE - Locator.MIN_LATITUDE) / cellDegrees);
+        polarRows = countPolarRows();
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        indexed = new boolean[capacity];
+        cellOf = new long[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(next, NONE);
+        Arrays.fill(previous, NONE);
+        heads = new CellTable(capacity);
+    }
+
+    /**
+     * Record a new valid location in a slot, replacing whatever it held before.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude stored in that slot
+     * @param longitude the new longitude stored in that slot
+     */
+    public void update(final int index, final double latitude, final double longitude) {
+        remove(index);
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return;
+        }
+        long row = row(latitude);
+        long cell = cellKey(row, 0);
+        if (!isPolar(row)) {
+            cell = cellKey(row, column(longitude));
+        }
+        int head = heads.get(cell);
+        next[index] = head;
+        previous[index] = NONE;
+        if (head != NONE) {
+            previous[head] = index;
+        }
+        heads.put(cell, index);
+        cellOf[index] = cell;
+        indexed[index] = true;
+    }
+
+    /**
+     * Mark a slot as no longer containing a valid location.
+     *
+     * @param index the slot that was evicted
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+        if (!indexed[index]) {
+            return;
+        }
+        indexed[index] = false;
+        if (previous[index] != NONE) {
+            next[previous[index]] = next[index];
+        } else if (next[index] != NONE) {
+            heads.put(cellOf[index], next[index]);
+        } else {
+            heads.remove(cellOf[index]);
+        }
+        if (next[index] != NONE) {
+            previous[next[index]] = previous[index];
+        }
+        next[index] = NONE;
+        previous[index] = NONE;
+    }
+
+    /**
+     * Determine whether another valid slot lies within the tolerance of this one.
+     * <p>
+     * This is the tolerance-based version of Locator.beenHere: exact repeats are always near, since their distance is
+     * zero.
+     *
+     * @param index the slot to compare against
+     * @return true if another valid slot is within the tolerance of this slot's location
+     */
+    public boolean beenNear(final int index) {
+        return search(latitudes[index], longitudes[index], index, found) > 0;
+    }
+
+    /**
+     * Determine whether any valid slot lies within the tolerance of a location.
+     *
+     * @param latitude the latitude to check
+     * @param longitude the longitude to check
+     * @return true if a valid slot is within the tolerance of the location
+     */
+    public boolean beenNear(final double latitude, final double longitude) {
+        return search(latitude, longitude, NONE, found) > 0;
+    }
+
+    /**
+     * Find any valid slot within the tolerance of a location.
+     *
+     * @param latitude the latitude to check
+     * @param longitude the longitude to check
+     * @return the index of a slot within the tolerance, or -1 if there is none
+     */
+    public int findNear(final double latitude, final double longitude) {
+        if (search(latitude, longitude, NONE, found) == 0) {
+            return NONE;
+        }
+        return found[0];
+    }
+
+    /**
+     * Find every valid slot within the tolerance of a location.
+     * <p>
+     * This is what to use to work out which saved locations a change could affect: a new or evicted location can
+     * only change whether the slots within the tolerance of it have been near something.
+     *
+     * @param latitude the latitude to check
+     * @param longitude the longitude to check
+     * @param result array to receive the slots, in no particular order; the search stops once it is full
+     * @return the number of slots stored in result
+     */
+    public int findAllNear(final double latitude, final double longitude, final int[] result) {
+        return search(latitude, longitude, NONE, result);
+    }
+
+    /**
+     * Return the tolerance.
+     *
+     * @return locations closer than this, in meters, count as the same place
+     */
+    public double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude, longitude);
+    }
+
+    /**
+     * Find valid slots within the tolerance of a location, skipping one slot.
+     *
+     * @param latitude the latitude to check
+     * @param longitude the longitude to check
+     * @param exclude a slot to skip, or NONE
+     * @param result array to receive the slots; the search stops once it is full
+     * @return the number of slots stored in result
+     */
+    private int search(final double latitude, final double longitude, final int exclude, final int[] result) {
+        if (!Coordinates.isComparable(latitude, longitude) || result.length == 0) {
+            return 0;
+        }
+        long centerRow = row(latitude);
+        /*
+         * Every location within the tolerance lies in a band of longitudes around the query. On a sphere its
+         * half-width is asin(sin(d) / cos(latitude)), where d is the tolerance as an angle, and once that band reaches
+         * a pole it covers every longitude.
+         */
+        double angle = toleranceMeters / Haversine.EARTH_RADIUS_METERS;
+        double ratio = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        long firstColumn = 0;
+        long lastColumn = columns - 1;
+        if (Math.abs(latitude) + cellDegrees < Locator.MAX_LATITUDE && ratio < 1) {
+            double longitudeRadius = Math.toDegrees(Math.asin(ratio)) * (1 + SLACK);
+            long from = (long) Math.floor((longitude - Locator.MIN_LONGITUDE - longitudeRadius) / columnDegrees);
+            long to = (long) Math.floor((longitude - Locator.MIN_LONGITUDE + longitudeRadius) / columnDegrees);
+            if (to - from + 1 < columns) {
+                firstColumn = from;
+                lastColumn = to;
+            }
+        }
+        int count = 0;
+        for (long row = Math.max(0, centerRow - 1); row <= Math.min(maxRow, centerRow + 1); row++) {
+            long rowFirstColumn = firstColumn;
+            long rowLastColumn = lastColumn;
+            if (isPolar(row)) {
+                rowFirstColumn = 0;
+                rowLastColumn = 0;
+            }
+            for (long column = rowFirstColumn; column <= rowLastColumn; column++) {
+                for (int slot = heads.get(cellKey(row, wrap(column))); slot != NONE; slot = next[slot]) {
+                    if (slot != exclude && Haversine.distance(latitude, longitude, latitudes[slot], longitudes[slot])
+                        <= toleranceMeters) {
+                        result[count++] = slot;
+                        if (count == result.length) {
+                            return count;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Work out how many rows at each pole must be cap cells so that no query scans more than MAX_SCANNED_COLUMNS
+     * columns of any other row.
+     * <p>
+     * A query scans at most two more columns than its range of longitudes covers, so the range may be at most
+     * MAX_SCANNED_COLUMNS - 2 columns wide. That fixes the highest latitude at which queries may still scan columns,
+     * using the same formula as search. A query in a cap row can still scan the row next to the cap, and rows don't
+     * line up exactly with the north pole, so the cap extends two rows past that latitude.
+     *
+     * @return the number of polar rows
+     */
+    private long countPolarRows() {
+        if (columns <= MAX_SCANNED_COLUMNS) {
+            return POLAR_ROWS;
+        }
+        double halfWidth = Math.toRadians((MAX_SCANNED_COLUMNS - 2) * columnDegrees / 2 / (1 + SLACK));
+        double angle = toleranceMeters / Haversine.EARTH_RADIUS_METERS;
+        double cosine = Math.sin(angle) / Math.sin(Math.min(halfWidth, Math.PI / 2));
+        if (cosine >= 1) {
+            return maxRow + 1;
+        }
+        double maxLatitude = Math.toDegrees(Math.acos(cosine));
+        return Math.max(POLAR_ROWS, (long) Math.ceil((Locator.MAX_LATITUDE - maxLatitude) / cellDegrees) + 2);
+    }
+
+    /**
+     * Return the grid row containing a latitude.
+     *
+     * @param latitude the latitude
+     * @return the row index
+     */
+    private long row(final double latitude) {
+        return Math.max(0, Math.min(maxRow, (long) Math.floor((latitude - Locator.MIN_LATITUDE) / cellDegrees)));
+    }
+
+    /**
+     * Return the grid column containing a longitude.
+     *
+     * @param longitude the longitude
+     * @return the column index
+     */
+    private long column(final double longitude) {
+        return wrap((long) Math.floor((longitude - Locator.MIN_LONGITUDE) / columnDegrees));
+    }
+
+    /**
+     * Wrap a column index that may lie past either end of the grid back onto the globe.
+     *
+     * @param column the unwrapped column index
+     * @return the column index between 0 and columns - 1
+     */
+    private long wrap(final long column) {
+        long wrapped = column % columns;
+        if (wrapped < 0) {
+            wrapped += columns;
+        }
+        return wrapped;
+    }
+
+    /**
+     * Whether a row is close enough to a pole to be stored as a single cap cell.
+     *
+     * @param row the row index
+     * @return true if the row is one of the polarRows closest to either pole
+     */
+    private boolean isPolar(final long row) {
+        return row < polarRows || row > maxRow - polarRows;
+    }
+
+    /**
+     * Combine a row and column into a single cell key.
+     *
+     * @param row the row index
+     * @param column the column index
+     * @return the cell key
+     */
+    private long cellKey(final long row, final long column) {
+        return row * columns + column;
+    }
+}
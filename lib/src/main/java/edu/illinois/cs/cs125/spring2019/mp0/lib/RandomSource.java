@@ -0,0 +1,59 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * A source of random numbers used by Locator to generate random locations.
+ * <p>
+ * Math.random shares a single generator between every thread in the program, and every call updates its seed using
+ * an atomic compare-and-set. When many threads generate random locations at once they all fight over that one seed.
+ * The sources created here avoid that: ThreadLocalRandom and SplittableRandom keep separate state for each thread or
+ * task, and the seeded source produces the same sequence every time so that runs can be reproduced exactly.
+ * <p>
+ * Other than the thread-local source, instances are not safe to share between threads. Give each thread its own.
+ */
+public interface RandomSource {
+
+    /**
+     * Return the next random number.
+     *
+     * @return a random double uniformly distributed between 0.0 (inclusive) and 1.0 (exclusive)
+     */
+    double nextDouble();
+
+    /**
+     * Return a source backed by the calling thread's ThreadLocalRandom.
+     * <p>
+     * The returned source may be shared freely. Each thread that uses it draws from its own generator.
+     *
+     * @return a source backed by ThreadLocalRandom
+     */
+    static RandomSource threadLocal() {
+        return RandomSources.ThreadLocalSource.INSTANCE;
+    }
+
+    /**
+     * Return a source backed by a new SplittableRandom.
+     * <p>
+     * SplittableRandom was only added to Android in API level 24 (Android 7.0), and the app supports older versions
+     * than that. Calling this on those versions throws NoClassDefFoundError, so code that runs in the app should use
+     * seeded instead, which uses the same algorithm but doesn't depend on the platform.
+     *
+     * @param seed the seed for the generator
+     * @return a source backed by a SplittableRandom created with the passed seed
+     */
+    static RandomSource splittable(final long seed) {
+        return new RandomSources.SplittableSource(seed);
+    }
+
+    /**
+     * Return a deterministic source that produces the same sequence for the same seed on every platform.
+     * <p>
+     * This uses the SplitMix64 algorithm with no synchronization at all, which makes it both reproducible and cheap.
+     * It is intended for benchmarks and simulations that need to be repeated exactly.
+     *
+     * @param seed the seed for the generator
+     * @return a deterministic source
+     */
+    static RandomSource seeded(final long seed) {
+        return new RandomSources.SeededSource(seed);
+    }
+}
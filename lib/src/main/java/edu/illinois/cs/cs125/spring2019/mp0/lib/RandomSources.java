@@ -0,0 +1,105 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementations of RandomSource.
+ */
+final class RandomSources {
+
+    /** Not instantiable. */
+    private RandomSources() { }
+
+    /** A source that draws from the calling thread's ThreadLocalRandom. */
+    static final class ThreadLocalSource implements RandomSource {
+
+        /** The only instance. It holds no state, so every thread can share it. */
+        static final ThreadLocalSource INSTANCE = new ThreadLocalSource();
+
+        @Override
+        public double nextDouble() {
+            return ThreadLocalRandom.current().nextDouble();
+        }
+    }
+
+    /** A source backed by a SplittableRandom. Requires Android API level 24, see RandomSource.splittable. */
+    static final class SplittableSource implements RandomSource {
+
+        /** The underlying generator. */
+        private final SplittableRandom random;
+
+        /**
+         * Create a new source.
+         *
+         * @param seed the seed for the generator
+         */
+        SplittableSource(final long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public double nextDouble() {
+            return random.nextDouble();
+        }
+    }
+
+    /** A source implementing SplitMix64 directly, so its output never depends on the JDK. */
+    static final class SeededSource implements RandomSource {
+
+        /** Amount the state advances by on each call. */
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+        /** First multiplier of the output mixing function. */
+        private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+
+        /** Second multiplier of the output mixing function. */
+        private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+
+        /** First shift of the output mixing function. */
+        private static final int MIX_SHIFT_1 = 30;
+
+        /** Second shift of the output mixing function. */
+        private static final int MIX_SHIFT_2 = 27;
+
+        /** Third shift of the output mixing function. */
+        private static final int MIX_SHIFT_3 = 31;
+
+        /** Number of low bits dropped to leave the 53 bits that fit in a double's mantissa. */
+        private static final int DOUBLE_SHIFT = 11;
+
+        /** Scale that maps a 53-bit integer onto [0, 1). */
+        private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+        /** The generator state. */
+        private long state;
+
+        /**
+         * Create a new source.
+         *
+         * @param seed the seed for the generator
+         */
+        SeededSource(final long seed) {
+            state = seed;
+        }
+
+        @Override
+        public double nextDouble() {
+            state += GOLDEN_GAMMA;
+            return (mix(state) >>> DOUBLE_SHIFT) * DOUBLE_UNIT;
+        }
+
+        /**
+         * Scramble the bits of a value. Nearby inputs give unrelated outputs, so this also turns counters into seeds.
+         *
+         * @param value the value to scramble
+         * @return the scrambled value
+         */
+        static long mix(final long value) {
+            long z = value;
+            z = (z ^ (z >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+            z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+            return z ^ (z >>> MIX_SHIFT_3);
+        }
+    }
+}
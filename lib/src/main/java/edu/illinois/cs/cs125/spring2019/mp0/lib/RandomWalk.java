@@ -0,0 +1,103 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Generates random walks in bulk, using the same model as the app's wander feature.
+ * <p>
+ * When wandering, the app takes one step per second. Each step draws a transition probability uniformly between 0
+ * and 1, a latitude change uniformly between plus and minus the maximum latitude change, and a longitude change the
+ * same way, and then passes them to Locator.nextRandomLocation, which moves by the changes with that probability and
+ * keeps the result inside the valid ranges. This class runs exactly that model, drawing its random numbers in the
+ * same order, but as a tight loop over primitive arrays, so simulations can take millions of steps per second.
+ * <p>
+ * Nothing is allocated per step. Use a seeded RandomSource to make walks reproducible. Like the sources themselves,
+ * an instance must not be shared between threads; give each thread its own.
+ */
+public final class RandomWalk {
+
+    /** Largest latitude change the app uses when wandering. */
+    public static final double DEFAULT_MAX_LATITUDE_CHANGE = 0.001;
+
+    /** Largest longitude change the app uses when wandering. */
+    public static final double DEFAULT_MAX_LONGITUDE_CHANGE = 0.002;
+
+    /** Largest latitude change in one step. */
+    private final double maxLatitudeChange;
+
+    /** Largest longitude change in one step. */
+    private final double maxLongitudeChange;
+
+    /** Where random numbers come from. */
+    private final RandomSource randomSource;
+
+    /**
+     * Create a walk using the app's step sizes.
+     *
+     * @param setRandomSource the source of random numbers to use
+     */
+    public RandomWalk(final RandomSource setRandomSource) {
+        this(DEFAULT_MAX_LATITUDE_CHANGE, DEFAULT_MAX_LONGITUDE_CHANGE, setRandomSource);
+    }
+
+    /**
+     * Create a walk using particular step sizes.
+     *
+     * @param setMaxLatitudeChange the largest latitude change in one step
+     * @param setMaxLongitudeChange the largest longitude change in one step
+     * @param setRandomSource the source of random numbers to use
+     */
+    public RandomWalk(final double setMaxLatitudeChange, final double setMaxLongitudeChange,
+                      final RandomSource setRandomSource) {
+        maxLatitudeChange = setMaxLatitudeChange;
+        maxLongitudeChange = setMaxLongitudeChange;
+        randomSource = setRandomSource;
+    }
+
+    /**
+     * Generate one walker's path in place.
+     * <p>
+     * The passed arrays must already hold the starting location at index 0. Every later index is then filled with
+     * the next step of the walk, so arrays of length N + 1 advance the walk by N steps. Each step copies the previous
+     * location forward and advances it as a walker of its own.
+     *
+     * @param latitudes the array holding the starting latitude that receives the generated latitudes
+     * @param longitudes the array holding the starting longitude that receives the generated longitudes
+     */
+    public void walk(final double[] latitudes, final double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitude and longitude arrays must be the same length");
+        }
+        if (latitudes.length == 0) {
+            return;
+        }
+        for (int i = 1; i < latitudes.length; i++) {
+            latitudes[i] = latitudes[i - 1];
+            longitudes[i] = longitudes[i - 1];
+            advance(latitudes, longitudes, i, i + 1);
+        }
+    }
+
+    /**
+     * Advance many independent walkers by one step each, in place.
+     * <p>
+     * Walker i's current location is held at index i of the two arrays. Only walkers from start up to but not
+     * including end are advanced, so separate ranges can be handed to separate threads, each with its own walk.
+     *
+     * @param latitudes each walker's latitude, updated in place
+     * @param longitudes each walker's longitude, updated in place
+     * @param start the first walker to advance
+     * @param end one past the last walker to advance
+     */
+    public void advance(final double[] latitudes, final double[] longitudes, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            double transitionProbability = randomSource.nextDouble();
+            double latitudeChange = randomSource.nextDouble() * maxLatitudeChange * 2 - maxLatitudeChange;
+            double longitudeChange = randomSource.nextDouble() * maxLongitudeChange * 2 - maxLongitudeChange;
+            if (randomSource.nextDouble() <= transitionProbability) {
+                latitudes[i] = Locator.clamp(latitudes[i] + latitudeChange,
+                    Locator.MIN_LATITUDE, Locator.MAX_LATITUDE);
+                longitudes[i] = Locator.clamp(longitudes[i] + longitudeChange,
+                    Locator.MIN_LONGITUDE, Locator.MAX_LONGITUDE);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Chooses how often to ask for new locations, based on how the most recent ones have been moving.
+ * <p>
+ * There is no point asking for a new location every few seconds while the device sits on a desk: every one of them
+ * lands on top of the last, and each still has to be saved, classified, and drawn. So the scheduler widens the
+ * interval while consecutive locations stay within a tolerance of each other, doubling it after every few such
+ * steps until it reaches the maximum. As soon as a step leaves the tolerance it tightens the interval again, far
+ * enough that at the recent speed the device should move about one tolerance between locations.
+ * <p>
+ * The recent speed is kept as an exponentially weighted mean and variance of the speed of each step, updated as each
+ * location arrives, so nothing is rescanned. Planning for the mean plus two standard deviations rather than just the
+ * mean makes the interval tighten quickly when the device speeds up, and stay tight while its speed is erratic.
+ * <p>
+ * Locations with a NaN coordinate, and steps that take no time, do not change the speed estimate.
+ */
+public final class SamplingScheduler {
+
+    /** Number of consecutive steps within the tolerance before the interval is widened. */
+    public static final int STATIONARY_STEPS = 3;
+
+    /** Weight given to the newest step speed in the running mean and variance. */
+    private static final double SMOOTHING = 0.25;
+
+    /** Milliseconds in one second. */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /** Shortest interval to ask for, in milliseconds. */
+    private final long minIntervalMillis;
+
+    /** Longest interval to ask for, in milliseconds. */
+    private final long maxIntervalMillis;
+
+    /** Distance two locations may be apart and still count as not moving, in meters. */
+    private final double toleranceMeters;
+
+    /** The current interval, in milliseconds. */
+    private long intervalMillis;
+
+    /** Whether a previous location has been seen. */
+    private boolean hasPrevious = false;
+
+    /** Latitude of the previous location. */
+    private double previousLatitude;
+
+    /** Longitude of the previous location. */
+    private double previousLongitude;
+
+    /** Time of the previous location, in milliseconds. */
+    private long previousTimeMillis;
+
+    /** Whether the speed estimate has any steps in it yet. */
+    private boolean hasSpeed = false;
+
+    /** Running mean of the step speed, in meters per second. */
+    private double meanSpeed = 0;
+
+    /** Running variance of the step speed. */
+    private double speedVariance = 0;
+
+    /** Number of consecutive steps within the tolerance since the interval last changed. */
+    private int stationarySteps = 0;
+
+    /**
+     * Create a new scheduler, starting at the shortest interval.
+     *
+     * @param setMinIntervalMillis the shortest interval to ask for, in milliseconds
+     * @param setMaxIntervalMillis the longest interval to ask for, in milliseconds
+     * @param setToleranceMeters the distance two locations may be apart and still count as not moving
+     */
+    public SamplingScheduler(final long setMinIntervalMillis, final long setMaxIntervalMillis,
+                             final double setToleranceMeters) {
+        if (setMinIntervalMillis < 1) {
+            throw new IllegalArgumentException("minimum interval must be positive");
+        }
+        if (setMaxIntervalMillis < setMinIntervalMillis) {
+            throw new IllegalArgumentException("maximum interval must not be less than the minimum");
+        }
+        minIntervalMillis = setMinIntervalMillis;
+        maxIntervalMillis = setMaxIntervalMillis;
+        toleranceMeters = setToleranceMeters;
+        intervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * Take a new location into account.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @param timeMillis when the location was measured, in milliseconds, using any clock that never goes backward
+     * @return true if the interval changed, so new locations should be requested at the new interval
+     */
+    public boolean append(final double latitude, final double longitude, final long timeMillis) {
+        if (!hasPrevious) {
+            remember(latitude, longitude, timeMillis);
+            return false;
+        }
+        double step = Haversine.distance(previousLatitude, previousLongitude, latitude, longitude);
+        long elapsed = timeMillis - previousTimeMillis;
+        remember(latitude, longitude, timeMillis);
+        if (Double.isNaN(step)) {
+            return false;
+        }
+        if (elapsed > 0) {
+            addSpeed(step / (elapsed / MILLIS_PER_SECOND));
+        }
+
+        long oldInterval = intervalMillis;
+        if (step <= toleranceMeters) {
+            stationarySteps++;
+            if (stationarySteps >= STATIONARY_STEPS) {
+                stationarySteps = 0;
+                intervalMillis = Math.min(intervalMillis * 2, maxIntervalMillis);
+            }
+        } else {
+            stationarySteps = 0;
+            intervalMillis = Math.min(intervalMillis, targetIntervalMillis());
+        }
+        return intervalMillis != oldInterval;
+    }
+
+    /**
+     * Forget every location and go back to the shortest interval.
+     */
+    public void reset() {
+        hasPrevious = false;
+        hasSpeed = false;
+        meanSpeed = 0;
+        speedVariance = 0;
+        stationarySteps = 0;
+        intervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * Return how often new locations should be requested.
+     *
+     * @return the interval, in milliseconds, between the minimum and maximum
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Return the running mean of the step speed.
+     *
+     * @return the speed, in meters per second, or 0 if no steps have been timed
+     */
+    public double getMeanSpeedMetersPerSecond() {
+        return meanSpeed;
+    }
+
+    /**
+     * Return the running standard deviation of the step speed.
+     *
+     * @return the standard deviation, in meters per second, or 0 if no steps have been timed
+     */
+    public double getSpeedDeviationMetersPerSecond() {
+        return Math.sqrt(speedVariance);
+    }
+
+    /**
+     * Save a location to measure the next step from.
+     *
+     * @param latitude the latitude
+     * @param longitude the longitude
+     * @param timeMillis the time, in milliseconds
+     */
+    private void remember(final double latitude, final double longitude, final long timeMillis) {
+        hasPrevious = true;
+        previousLatitude = latitude;
+        previousLongitude = longitude;
+        previousTimeMillis = timeMillis;
+    }
+
+    /**
+     * Add a step speed to the running mean and variance.
+     *
+     * @param speed the speed of the step, in meters per second
+     */
+    private void addSpeed(final double speed) {
+        if (!hasSpeed) {
+            hasSpeed = true;
+            meanSpeed = speed;
+            speedVariance = 0;
+            return;
+        }
+        double difference = speed - meanSpeed;
+        double increment = SMOOTHING * difference;
+        meanSpeed += increment;
+        speedVariance = (1 - SMOOTHING) * (speedVariance + difference * increment);
+    }
+
+    /**
+     * Return the interval at which the device should move about one tolerance between locations.
+     *
+     * @return the interval, in milliseconds, between the minimum and maximum
+     */
+    private long targetIntervalMillis() {
+        double speed = meanSpeed + 2 * Math.sqrt(speedVariance);
+        if (speed <= 0) {
+            return maxIntervalMillis;
+        }
+        double target = toleranceMeters / speed * MILLIS_PER_SECOND;
+        if (target >= maxIntervalMillis) {
+            return maxIntervalMillis;
+        }
+        return Math.max(minIntervalMillis, (long) target);
+    }
+}
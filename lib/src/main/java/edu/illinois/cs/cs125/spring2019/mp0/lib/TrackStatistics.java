@@ -0,0 +1,316 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Summarizes the most recent locations along a track: how far it goes, how fast, the longest single step, and the
+ * box containing it.
+ * <p>
+ * Like LocationHistory, this keeps a fixed number of the most recent locations, and each new location pushes out the
+ * oldest one once it is full. Every statistic is updated as each location arrives rather than by rescanning the
+ * track. The total distance adds the new step and subtracts the step leaving the window. The largest step and the
+ * bounding box can't be updated by subtraction, so each is kept in a monotonic queue: a queue of candidates whose
+ * values only decrease from front to back, so the front is always the current extreme. Each value enters and leaves
+ * its queue at most once, so every update takes constant amortized time.
+ * <p>
+ * Locations with a NaN coordinate still take up a place in the track, but steps to or from them count as zero
+ * meters and they are left out of the bounding box.
+ */
+public final class TrackStatistics {
+
+    /**
+     * Tracks the largest value in a sliding window of values.
+     */
+    private static final class SlidingMaximum {
+
+        /** The sequence number of each candidate. */
+        private final long[] sequences;
+
+        /** The value of each candidate. Values decrease from the front of the queue to the back. */
+        private final double[] values;
+
+        /** Position of the front candidate. */
+        private int head = 0;
+
+        /** Number of candidates. */
+        private int count = 0;
+
+        /**
+         * Create a new empty queue.
+         *
+         * @param setCapacity the largest number of values that are ever in the window at once
+         */
+        SlidingMaximum(final int setCapacity) {
+            sequences = new long[setCapacity];
+            values = new double[setCapacity];
+        }
+
+        /**
+         * Add a value to the back of the window. Candidates that it beats can never be the maximum again, so they are
+         * dropped.
+         *
+         * @param sequence the sequence number of the value, larger than any added before
+         * @param value the value, which is ignored if it is NaN
+         */
+        void push(final long sequence, final double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            while (count > 0 && values[(head + count - 1) % values.length] <= value) {
+                count--;
+            }
+            int tail = (head + count) % values.length;
+            sequences[tail] = sequence;
+            values[tail] = value;
+            count++;
+        }
+
+        /**
+         * Drop values that have left the window.
+         *
+         * @param first the sequence number of the oldest value still in the window
+         */
+        void expire(final long first) {
+            while (count > 0 && sequences[head] < first) {
+                head = (head + 1) % values.length;
+                count--;
+            }
+        }
+
+        /**
+         * Return the largest value in the window.
+         *
+         * @param empty the value to return if the window has no values
+         * @return the largest value
+         */
+        double maximum(final double empty) {
+            if (count == 0) {
+                return empty;
+            }
+            return values[head];
+        }
+
+        /**
+         * Remove every value.
+         */
+        void clear() {
+            count = 0;
+        }
+    }
+
+    /** Milliseconds in one second. */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /** Number of locations kept. */
+    private final int capacity;
+
+    /** Latitudes, indexed by sequence number modulo capacity. */
+    private final double[] latitudes;
+
+    /** Longitudes, indexed by sequence number modulo capacity. */
+    private final double[] longitudes;
+
+    /** Times, indexed by sequence number modulo capacity. */
+    private final long[] times;
+
+    /** Length of the step ending at each location, indexed by sequence number modulo capacity. */
+    private final double[] steps;
+
+    /** Largest step in the window. */
+    private final SlidingMaximum maxStep;
+
+    /** Largest latitude in the window. */
+    private final SlidingMaximum maxLatitude;
+
+    /** Largest negated latitude in the window. */
+    private final SlidingMaximum minLatitude;
+
+    /** Largest longitude in the window. */
+    private final SlidingMaximum maxLongitude;
+
+    /** Largest negated longitude in the window. */
+    private final SlidingMaximum minLongitude;
+
+    /** Sequence number of the oldest location in the window. */
+    private long first = 0;
+
+    /** Number of locations in the window. */
+    private int size = 0;
+
+    /** Sum of the steps in the window, in meters. */
+    private double totalDistance = 0;
+
+    /**
+     * Create new empty statistics.
+     *
+     * @param setCapacity the number of most recent locations to summarize
+     */
+    public TrackStatistics(final int setCapacity) {
+        if (setCapacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        capacity = setCapacity;
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        times = new long[capacity];
+        steps = new double[capacity];
+        maxStep = new SlidingMaximum(capacity);
+        maxLatitude = new SlidingMaximum(capacity);
+        minLatitude = new SlidingMaximum(capacity);
+        maxLongitude = new SlidingMaximum(capacity);
+        minLongitude = new SlidingMaximum(capacity);
+    }
+
+    /**
+     * Add a new location to the end of the track, removing the oldest one if the track is full.
+     *
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     * @param timeMillis when the location was measured, in milliseconds, using any clock that never goes backward
+     */
+    public void append(final double latitude, final double longitude, final long timeMillis) {
+        if (size == capacity) {
+            removeOldest();
+        }
+        long sequence = first + size;
+        int slot = (int) (sequence % capacity);
+        if (size > 0) {
+            int previous = (int) ((sequence - 1) % capacity);
+            double step = Haversine.distance(latitudes[previous], longitudes[previous], latitude, longitude);
+            if (Double.isNaN(step)) {
+                step = 0;
+            }
+            steps[slot] = step;
+            totalDistance += step;
+            maxStep.push(sequence, step);
+        }
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        times[slot] = timeMillis;
+        if (Coordinates.isComparable(latitude, longitude)) {
+            maxLatitude.push(sequence, latitude);
+            minLatitude.push(sequence, -latitude);
+            maxLongitude.push(sequence, longitude);
+            minLongitude.push(sequence, -longitude);
+        }
+        size++;
+    }
+
+    /**
+     * Remove every location.
+     */
+    public void clear() {
+        first += size;
+        size = 0;
+        totalDistance = 0;
+        maxStep.clear();
+        maxLatitude.clear();
+        minLatitude.clear();
+        maxLongitude.clear();
+        minLongitude.clear();
+    }
+
+    /**
+     * Return the number of locations in the track.
+     *
+     * @return the number of locations being summarized
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the total distance along the track.
+     *
+     * @return the sum of the great-circle distances between consecutive locations, in meters
+     */
+    public double getTotalDistanceMeters() {
+        return totalDistance;
+    }
+
+    /**
+     * Return the time between the oldest and newest locations.
+     *
+     * @return the duration of the track, in milliseconds
+     */
+    public long getDurationMillis() {
+        if (size == 0) {
+            return 0;
+        }
+        return times[(int) ((first + size - 1) % capacity)] - times[(int) (first % capacity)];
+    }
+
+    /**
+     * Return the average speed along the track.
+     *
+     * @return the total distance divided by the duration, in meters per second, or 0 if no time has passed
+     */
+    public double getAverageSpeedMetersPerSecond() {
+        long duration = getDurationMillis();
+        if (duration <= 0) {
+            return 0;
+        }
+        return totalDistance / (duration / MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Return the longest step between two consecutive locations.
+     *
+     * @return the longest step, in meters, or 0 if there are fewer than two locations
+     */
+    public double getMaxStepMeters() {
+        return maxStep.maximum(0);
+    }
+
+    /**
+     * Return the southern edge of the box containing the track.
+     *
+     * @return the smallest latitude, or NaN if there are no locations
+     */
+    public double getSouth() {
+        return -minLatitude.maximum(Double.NaN);
+    }
+
+    /**
+     * Return the northern edge of the box containing the track.
+     *
+     * @return the largest latitude, or NaN if there are no locations
+     */
+    public double getNorth() {
+        return maxLatitude.maximum(Double.NaN);
+    }
+
+    /**
+     * Return the western edge of the box containing the track.
+     *
+     * @return the smallest longitude, or NaN if there are no locations
+     */
+    public double getWest() {
+        return -minLongitude.maximum(Double.NaN);
+    }
+
+    /**
+     * Return the eastern edge of the box containing the track.
+     *
+     * @return the largest longitude, or NaN if there are no locations
+     */
+    public double getEast() {
+        return maxLongitude.maximum(Double.NaN);
+    }
+
+    /**
+     * Remove the oldest location, along with the step leaving it.
+     */
+    private void removeOldest() {
+        first++;
+        size--;
+        if (size <= 1) {
+            totalDistance = 0;
+        } else {
+            totalDistance -= steps[(int) (first % capacity)];
+        }
+        maxStep.expire(first + 1);
+        maxLatitude.expire(first);
+        minLatitude.expire(first);
+        maxLongitude.expire(first);
+        minLongitude.expire(first);
+    }
+}
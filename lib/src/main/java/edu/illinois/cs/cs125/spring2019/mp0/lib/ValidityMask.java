@@ -0,0 +1,88 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Helpers for validity masks packed into arrays of longs.
+ * <p>
+ * The Locator methods normally take a boolean array recording which locations are valid, which uses a whole byte
+ * per location. A packed mask stores the same information in one bit per location: bit (i % 64) of word (i / 64)
+ * is set when location i is valid. Besides using an eighth of the memory, this lets scans skip 64 invalid locations
+ * at a time by testing whole words, and jump straight to the next valid location using
+ * Long.numberOfTrailingZeros.
+ */
+public final class ValidityMask {
+
+    /** Shift converting a location index into a word index. */
+    static final int WORD_SHIFT = 6;
+
+    /** Mask extracting the bit index within a word from a location index. */
+    private static final int BIT_MASK = Long.SIZE - 1;
+
+    /** Not instantiable. */
+    private ValidityMask() { }
+
+    /**
+     * Return the number of words needed to hold a mask for a number of locations.
+     *
+     * @param size the number of locations
+     * @return the length of the long array needed
+     */
+    public static int words(final int size) {
+        return (size + BIT_MASK) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Pack a boolean validity array into a mask.
+     *
+     * @param validLocations the array containing whether the location at an index is valid or not
+     * @return a packed mask with the same contents
+     */
+    public static long[] pack(final boolean[] validLocations) {
+        long[] mask = new long[words(validLocations.length)];
+        for (int i = 0; i < validLocations.length; i++) {
+            if (validLocations[i]) {
+                mask[i >>> WORD_SHIFT] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Return whether a location is marked valid.
+     *
+     * @param mask the packed mask
+     * @param index the location index
+     * @return true if the location is valid
+     */
+    public static boolean isValid(final long[] mask, final int index) {
+        return (mask[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * Mark a location as valid or invalid.
+     *
+     * @param mask the packed mask
+     * @param index the location index
+     * @param valid whether the location is valid
+     */
+    public static void setValid(final long[] mask, final int index, final boolean valid) {
+        if (valid) {
+            mask[index >>> WORD_SHIFT] |= 1L << index;
+        } else {
+            mask[index >>> WORD_SHIFT] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Return the number of valid locations.
+     *
+     * @param mask the packed mask
+     * @return the number of set bits
+     */
+    public static int count(final long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
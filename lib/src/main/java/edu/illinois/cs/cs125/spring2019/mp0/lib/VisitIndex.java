@@ -0,0 +1,229 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+/**
+ * Counts how many times each location appears in a fixed-size array of locations as it changes.
+ * <p>
+ * Locator.beenHere answers whether a location repeats by scanning the arrays. This class instead keeps a hash table
+ * mapping each location to the number of valid slots that contain it, so writing a slot, overwriting it when the
+ * app's circular buffer wraps around, and asking whether a slot is a repeat all take constant expected time.
+ * <p>
+ * The table uses open addressing with linear probing over primitive arrays, so no Double or Long objects are ever
+ * created. Keys are compared the same way that beenHere compares locations using <code>==</code>: -0.0 and 0.0 are
+ * folded into the same key, and locations with a NaN coordinate are never stored since they never equal anything.
+ */
+public final class VisitIndex implements LocationHistory.Listener {
+
+    /** Number of slots being tracked. */
+    private final int capacity;
+
+    /** The latitude stored in each slot, valid or not. */
+    private final double[] latitudes;
+
+    /** The longitude stored in each slot, valid or not. */
+    private final double[] longitudes;
+
+    /** Whether each slot contains a valid location. */
+    private final boolean[] validLocations;
+
+    /** Canonical latitude bits of each table entry. */
+    private final long[] latitudeKeys;
+
+    /** Canonical longitude bits of each table entry. */
+    private final long[] longitudeKeys;
+
+    /** Number of valid slots matching each table entry. Zero marks an empty entry. */
+    private final int[] counts;
+
+    /** Mask used to wrap probe positions around the table. */
+    private final int mask;
+
+    /**
+     * Create a new index with every slot invalid.
+     *
+     * @param setCapacity the number of slots to track
+     */
+    public VisitIndex(final int setCapacity) {
+        if (setCapacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        capacity = setCapacity;
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        validLocations = new boolean[capacity];
+        int tableSize = Coordinates.tableSizeFor(capacity);
+        latitudeKeys = new long[tableSize];
+        longitudeKeys = new long[tableSize];
+        counts = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Create an index initialized from existing location arrays.
+     *
+     * @param setLatitudes the array containing latitude measurements
+     * @param setLongitudes the array containing longitude measurements
+     * @param setValidLocations the array containing whether the location at an index is valid or not
+     * @return a new index containing every location
+     */
+    public static VisitIndex of(final double[] setLatitudes, final double[] setLongitudes,
+                                final boolean[] setValidLocations) {
+        VisitIndex index = new VisitIndex(setLatitudes.length);
+        for (int i = 0; i < setLatitudes.length; i++) {
+            if (setValidLocations[i]) {
+                index.update(i, setLatitudes[i], setLongitudes[i]);
+            } else {
+                index.latitudes[i] = setLatitudes[i];
+                index.longitudes[i] = setLongitudes[i];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Record a new valid location in a slot, replacing whatever it held before.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude stored in that slot
+     * @param longitude the new longitude stored in that slot
+     */
+    public void update(final int index, final double latitude, final double longitude) {
+        remove(index);
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        validLocations[index] = true;
+        if (Coordinates.isComparable(latitude, longitude)) {
+            long latitudeBits = Coordinates.canonicalBits(latitude);
+            long longitudeBits = Coordinates.canonicalBits(longitude);
+            int slot = find(latitudeBits, longitudeBits);
+            latitudeKeys[slot] = latitudeBits;
+            longitudeKeys[slot] = longitudeBits;
+            counts[slot]++;
+        }
+    }
+
+    /**
+     * Mark a slot as no longer containing a valid location.
+     * <p>
+     * The slot keeps its coordinates, just like the app's arrays do when a location is marked invalid.
+     *
+     * @param index the slot that was evicted
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("slot " + index + " is outside capacity " + capacity);
+        }
+        if (!validLocations[index]) {
+            return;
+        }
+        validLocations[index] = false;
+        if (!Coordinates.isComparable(latitudes[index], longitudes[index])) {
+            return;
+        }
+        int slot = find(Coordinates.canonicalBits(latitudes[index]), Coordinates.canonicalBits(longitudes[index]));
+        counts[slot]--;
+        if (counts[slot] == 0) {
+            deleteEntry(slot);
+        }
+    }
+
+    /**
+     * Return how many valid slots contain a location.
+     *
+     * @param latitude the latitude to look up
+     * @param longitude the longitude to look up
+     * @return the number of valid slots equal to the location
+     */
+    public int count(final double latitude, final double longitude) {
+        if (!Coordinates.isComparable(latitude, longitude)) {
+            return 0;
+        }
+        return counts[find(Coordinates.canonicalBits(latitude), Coordinates.canonicalBits(longitude))];
+    }
+
+    /**
+     * Determine whether another valid slot contains the same location as this one.
+     * <p>
+     * This returns exactly what Locator.beenHere would return when passed the arrays that this index tracks,
+     * including for slots that are not themselves valid.
+     *
+     * @param index the slot to compare against
+     * @return true if another valid slot contains a location equal to this one
+     */
+    public boolean beenHere(final int index) {
+        int matches = count(latitudes[index], longitudes[index]);
+        if (validLocations[index]) {
+            return matches > 1;
+        }
+        return matches > 0;
+    }
+
+    /**
+     * Remove an evicted location when following a LocationHistory.
+     *
+     * @param index the slot being evicted
+     * @param latitude the latitude that was stored in the slot
+     * @param longitude the longitude that was stored in the slot
+     */
+    @Override
+    public void onEvict(final int index, final double latitude, final double longitude) {
+        remove(index);
+    }
+
+    /**
+     * Record a new location when following a LocationHistory.
+     *
+     * @param index the slot that was written
+     * @param latitude the new latitude
+     * @param longitude the new longitude
+     */
+    @Override
+    public void onAppend(final int index, final double latitude, final double longitude) {
+        update(index, latitude, longitude);
+    }
+
+    /**
+     * Return the number of slots being tracked.
+     *
+     * @return the capacity of this index
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Find the table entry for a key, or the empty entry where it would be inserted.
+     *
+     * @param latitudeBits the canonical latitude bits
+     * @param longitudeBits the canonical longitude bits
+     * @return the position of the matching or empty entry
+     */
+    private int find(final long latitudeBits, final long longitudeBits) {
+        int slot = Coordinates.hash(latitudeBits, longitudeBits) & mask;
+        while (counts[slot] != 0
+            && (latitudeKeys[slot] != latitudeBits || longitudeKeys[slot] != longitudeBits)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Delete a table entry, shifting later entries in its probe run back so that lookups never hit a false gap.
+     *
+     * @param slot the position of the entry to delete
+     */
+    private void deleteEntry(final int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (counts[next] != 0) {
+            int home = Coordinates.hash(latitudeKeys[next], longitudeKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                latitudeKeys[gap] = latitudeKeys[next];
+                longitudeKeys[gap] = longitudeKeys[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        counts[gap] = 0;
+    }
+}
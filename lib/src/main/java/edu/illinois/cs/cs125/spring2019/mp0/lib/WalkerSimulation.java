@@ -0,0 +1,256 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates many independent random walkers at once, spread across every core.
+ * <p>
+ * Every walker follows the app's wander model, as implemented by RandomWalk. Walker state is stored as two arrays,
+ * one of latitudes and one of longitudes, rather than as one object per walker, so advancing them is a sequential
+ * pass over memory. Each tick the walkers are divided into fixed-size chunks, which are advanced in parallel on a
+ * ForkJoinPool.
+ * <p>
+ * Each chunk draws its random numbers from its own seeded RandomSource, seeded from the simulation's seed, the tick,
+ * and the chunk number. So chunks never contend over a shared generator, and because the chunks are the same no matter
+ * how many threads run them, two simulations created with the same seed and chunk size always produce exactly the
+ * same walks, even on machines with different numbers of cores or different Java versions. The seeded source is used
+ * rather than SplittableRandom so that the simulation also runs on Android versions older than 7.0.
+ */
+public final class WalkerSimulation {
+
+    /** Default number of walkers in each chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 16384;
+
+    /** Nanoseconds in one second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** The pool used to run chunks. */
+    private final ForkJoinPool pool;
+
+    /** Number of walkers in each chunk. */
+    private final int chunkSize;
+
+    /** Number of chunks. */
+    private final int chunks;
+
+    /** The seed that every chunk's generator is derived from. */
+    private final long seed;
+
+    /** Each walker's latitude. */
+    private final double[] latitudes;
+
+    /** Each walker's longitude. */
+    private final double[] longitudes;
+
+    /** Number of ticks run so far. */
+    private long tick = 0;
+
+    /** Total time spent running ticks, in nanoseconds. */
+    private long elapsedNanos = 0;
+
+    /**
+     * Create a simulation that uses the common pool and the default chunk size.
+     *
+     * @param walkers the number of walkers
+     * @param startLatitude the latitude every walker starts at
+     * @param startLongitude the longitude every walker starts at
+     * @param setSeed the seed that makes the simulation reproducible
+     */
+    public WalkerSimulation(final int walkers, final double startLatitude, final double startLongitude,
+                            final long setSeed) {
+        this(walkers, startLatitude, startLongitude, setSeed, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a simulation.
+     *
+     * @param walkers the number of walkers
+     * @param startLatitude the latitude every walker starts at
+     * @param startLongitude the longitude every walker starts at
+     * @param setSeed the seed that makes the simulation reproducible
+     * @param setPool the pool used to run chunks
+     * @param setChunkSize the number of walkers in each chunk
+     */
+    public WalkerSimulation(final int walkers, final double startLatitude, final double startLongitude,
+                            final long setSeed, final ForkJoinPool setPool, final int setChunkSize) {
+        if (walkers < 0) {
+            throw new IllegalArgumentException("number of walkers must not be negative");
+        }
+        if (setChunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive");
+        }
+        pool = setPool;
+        chunkSize = setChunkSize;
+        chunks = (int) (((long) walkers + chunkSize - 1) / chunkSize);
+        seed = setSeed;
+        latitudes = new double[walkers];
+        longitudes = new double[walkers];
+        Arrays.fill(latitudes, startLatitude);
+        Arrays.fill(longitudes, startLongitude);
+    }
+
+    /**
+     * Advance every walker by one step.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        if (chunks > 0) {
+            pool.invoke(new ChunkTask(tick, 0, chunks));
+        }
+        elapsedNanos += System.nanoTime() - start;
+        tick++;
+    }
+
+    /**
+     * Advance every walker by several steps.
+     *
+     * @param ticks the number of steps to take
+     */
+    public void run(final int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Return the number of ticks run so far.
+     *
+     * @return the number of steps every walker has taken
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Return the number of walkers.
+     *
+     * @return the number of walkers
+     */
+    public int size() {
+        return latitudes.length;
+    }
+
+    /**
+     * Return the number of walkers in each chunk.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Return the total number of steps taken by all walkers.
+     *
+     * @return the number of walkers times the number of ticks
+     */
+    public long getTotalSteps() {
+        return tick * latitudes.length;
+    }
+
+    /**
+     * Return the simulation's throughput so far.
+     *
+     * @return steps taken per second of time spent running ticks, or 0 if no time has been spent
+     */
+    public double getStepsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return getTotalSteps() / (elapsedNanos / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Return a walker's latitude.
+     *
+     * @param walker the walker
+     * @return the walker's current latitude
+     */
+    public double latitude(final int walker) {
+        return latitudes[walker];
+    }
+
+    /**
+     * Return a walker's longitude.
+     *
+     * @param walker the walker
+     * @return the walker's current longitude
+     */
+    public double longitude(final int walker) {
+        return longitudes[walker];
+    }
+
+    /**
+     * Return every walker's latitude, without copying.
+     *
+     * @return the array of latitudes. It must not be modified.
+     */
+    public double[] latitudes() {
+        return latitudes;
+    }
+
+    /**
+     * Return every walker's longitude, without copying.
+     *
+     * @return the array of longitudes. It must not be modified.
+     */
+    public double[] longitudes() {
+        return longitudes;
+    }
+
+    /**
+     * Derive the seed for one chunk's generator on one tick.
+     *
+     * @param forTick the tick
+     * @param chunk the chunk
+     * @return a seed unrelated to the seeds of any other tick or chunk
+     */
+    private long chunkSeed(final long forTick, final int chunk) {
+        return RandomSources.SeededSource.mix(RandomSources.SeededSource.mix(RandomSources.SeededSource.mix(seed)
+            + forTick) + chunk);
+    }
+
+    /** Task that advances a range of chunks by one step. */
+    private final class ChunkTask extends RecursiveAction {
+
+        /** Serialization version, required because ForkJoinTask is Serializable. */
+        private static final long serialVersionUID = 1L;
+
+        /** The tick being run. */
+        private final long taskTick;
+
+        /** First chunk of the range, inclusive. */
+        private final int from;
+
+        /** Last chunk of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Create a new task.
+         *
+         * @param setTick the tick being run
+         * @param setFrom first chunk of the range, inclusive
+         * @param setTo last chunk of the range, exclusive
+         */
+        ChunkTask(final long setTick, final int setFrom, final int setTo) {
+            taskTick = setTick;
+            from = setFrom;
+            to = setTo;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int start = from * chunkSize;
+                int end = (int) Math.min(latitudes.length, (long) start + chunkSize);
+                new RandomWalk(RandomSource.seeded(chunkSeed(taskTick, from)))
+                    .advance(latitudes, longitudes, start, end);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(taskTick, from, middle), new ChunkTask(taskTick, middle, to));
+        }
+    }
+}
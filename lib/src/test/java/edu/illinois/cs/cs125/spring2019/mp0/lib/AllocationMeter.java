@@ -0,0 +1,46 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures how much memory a piece of work allocates, for tests that check a hot path is allocation-free.
+ * <p>
+ * This relies on the HotSpot extension to ThreadMXBean. On virtual machines without it, the calling test is skipped
+ * rather than failed.
+ */
+final class AllocationMeter {
+
+    /** Number of unmeasured runs, so one-time class loading and compilation are not counted. */
+    private static final int WARMUP_ROUNDS = 64;
+
+    /** Not instantiable. */
+    private AllocationMeter() { }
+
+    /**
+     * Measure the bytes allocated by the current thread while running a piece of work repeatedly.
+     *
+     * @param work the work to measure
+     * @param rounds the number of times to run it while measuring
+     * @return the number of bytes allocated, including a little for the measurement calls themselves
+     */
+    static long allocatedBytes(final Runnable work, final int rounds) {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            work.run();
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < rounds; i++) {
+            work.run();
+        }
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+}
@@ -0,0 +1,44 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Arrays;
+
+/**
+ * Minimal timing harness shared by the lib benchmarks.
+ * <p>
+ * Benchmarks are plain main classes in the test source set, so they are not run as part of the test suite. Run one
+ * using the benchmark task, for example: <code>./gradlew lib:benchmark -Pbenchmark=ParallelLocatorBenchmark</code>
+ */
+final class Benchmark {
+
+    /** Number of untimed warm-up rounds run before measuring. */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /** Number of timed rounds. The median is reported. */
+    private static final int MEASURED_ROUNDS = 9;
+
+    /** Values written here by benchmarks keep the JIT from removing their work. */
+    static volatile long sink;
+
+    /** Not instantiable. */
+    private Benchmark() { }
+
+    /**
+     * Measure the median time taken by a piece of work.
+     *
+     * @param work the work to time
+     * @return the median time of one run, in nanoseconds
+     */
+    static long median(final Runnable work) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            work.run();
+        }
+        long[] times = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            work.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[MEASURED_ROUNDS / 2];
+    }
+}
@@ -0,0 +1,162 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test suite for the ClassificationPipeline class.
+ */
+public class ClassificationPipelineTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testClassificationPipelineSimple() {
+        List<ClassificationPipeline.Frame> frames = new ArrayList<>();
+        ClassificationPipeline pipeline = new ClassificationPipeline(3, 10.0, Runnable::run, Runnable::run,
+            frames::add);
+        Assert.assertEquals(0, pipeline.getGeneration());
+        Assert.assertEquals(1, pipeline.submit(40.0, -88.0));
+        Assert.assertEquals(2, pipeline.submit(39.0, -88.0));
+        Assert.assertEquals(MarkerClassification.CURRENT, frames.get(1).classOf(1));
+        Assert.assertEquals(3, pipeline.submit(39.0 + 5.0 / Haversine.METERS_PER_DEGREE, -88.0));
+        Assert.assertEquals(3, frames.size());
+        ClassificationPipeline.Frame frame = frames.get(2);
+        Assert.assertEquals(3, frame.getGeneration());
+        Assert.assertEquals(3, frame.capacity());
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, frame.classOf(0));
+        Assert.assertEquals(MarkerClassification.REPEATED, frame.classOf(1));
+        Assert.assertEquals(MarkerClassification.CURRENT, frame.classOf(2));
+        Assert.assertEquals(39.0, frame.latitude(1), 0.0);
+        Assert.assertEquals(-88.0, frame.longitude(1), 0.0);
+        Assert.assertSame(frames.get(0), frames.get(2));
+        Assert.assertNotSame(frames.get(1), frames.get(2));
+    }
+
+    @Test(timeout=100)
+    public void testClassificationPipelineClose() {
+        Queue<Runnable> background = new ArrayDeque<>();
+        Queue<Runnable> foreground = new ArrayDeque<>();
+        List<ClassificationPipeline.Frame> frames = new ArrayList<>();
+        ClassificationPipeline pipeline = new ClassificationPipeline(2, 10.0, background::add, foreground::add,
+            frames::add);
+        pipeline.submit(40.0, -88.0);
+        drain(background);
+        pipeline.submit(41.0, -88.0);
+        pipeline.close();
+        Assert.assertEquals(2, pipeline.submit(42.0, -88.0));
+        Assert.assertEquals(2, pipeline.submit(new double[] {43.0}, new double[] {-88.0}, 1));
+        Assert.assertEquals(1, background.size());
+        drain(background);
+        drain(foreground);
+        Assert.assertEquals(0, frames.size());
+    }
+
+    @Test(timeout=100)
+    public void testClassificationPipelineDropsStaleResults() {
+        Queue<Runnable> background = new ArrayDeque<>();
+        Queue<Runnable> foreground = new ArrayDeque<>();
+        List<ClassificationPipeline.Frame> frames = new ArrayList<>();
+        ClassificationPipeline pipeline = new ClassificationPipeline(4, 10.0, background::add, foreground::add,
+            frames::add);
+
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(40.0 + i, -88.0);
+        }
+        drain(background);
+        Assert.assertEquals(1, foreground.size());
+
+        pipeline.submit(30.0, -88.0);
+        drain(foreground);
+        Assert.assertEquals(0, frames.size());
+
+        drain(background);
+        drain(foreground);
+        Assert.assertEquals(1, frames.size());
+        ClassificationPipeline.Frame frame = frames.get(0);
+        Assert.assertEquals(4, frame.getGeneration());
+        Assert.assertEquals(MarkerClassification.OTHER, frame.classOf(0));
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, frame.classOf(2));
+        Assert.assertEquals(MarkerClassification.CURRENT, frame.classOf(3));
+    }
+
+    @Test(timeout=100)
+    public void testClassificationPipelineBatch() {
+        Queue<Runnable> background = new ArrayDeque<>();
+        List<ClassificationPipeline.Frame> frames = new ArrayList<>();
+        ClassificationPipeline pipeline = new ClassificationPipeline(4, 10.0, background::add, Runnable::run,
+            frames::add);
+        double[] latitudes = {40.0, 41.0, 39.0, 0.0};
+        double[] longitudes = {-88.0, -88.0, -88.0, 0.0};
+        Assert.assertEquals(1, pipeline.submit(latitudes, longitudes, 3));
+        latitudes[0] = 0.0;
+        Assert.assertEquals(1, background.size());
+        drain(background);
+        Assert.assertEquals(1, frames.size());
+        ClassificationPipeline.Frame frame = frames.get(0);
+        Assert.assertEquals(1, frame.getGeneration());
+        Assert.assertEquals(40.0, frame.latitude(0), 0.0);
+        Assert.assertEquals(MarkerClassification.OTHER, frame.classOf(0));
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, frame.classOf(1));
+        Assert.assertEquals(MarkerClassification.CURRENT, frame.classOf(2));
+        Assert.assertEquals(MarkerClassification.HIDDEN, frame.classOf(3));
+
+        pipeline.submit(latitudes, longitudes, 0);
+        pipeline.submit(50.0, -88.0);
+        drain(background);
+        Assert.assertEquals(2, frames.size());
+        Assert.assertEquals(3, frames.get(1).getGeneration());
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, frames.get(1).classOf(3));
+    }
+
+    @Test(timeout=5000)
+    public void testClassificationPipelineThreaded() throws InterruptedException {
+        int size = random.nextInt(100) + 1;
+        ExecutorService background = Executors.newSingleThreadExecutor();
+        List<ClassificationPipeline.Frame> frames = new ArrayList<>();
+        ClassificationPipeline pipeline = new ClassificationPipeline(size, 10.0, background, Runnable::run,
+            frame -> {
+                synchronized (frames) {
+                    frames.add(frame);
+                }
+            });
+        LocationHistory history = new LocationHistory(size);
+        FarthestNorthTracker tracker = new FarthestNorthTracker(size);
+        ProximityIndex index = new ProximityIndex(size, 10.0);
+        MarkerClassification classification = new MarkerClassification(size, tracker, index);
+        history.addListener(tracker);
+        history.addListener(index);
+        history.addListener(classification);
+        for (int step = 0; step < 1024; step++) {
+            double latitude = 40.0 + random.nextInt(100) * 1e-4;
+            double longitude = -88.0 + random.nextInt(100) * 1e-4;
+            pipeline.submit(latitude, longitude);
+            history.append(latitude, longitude);
+        }
+        background.shutdown();
+        Assert.assertTrue(background.awaitTermination(1, TimeUnit.SECONDS));
+        classification.changes(new int[size], new boolean[size]);
+
+        ClassificationPipeline.Frame last = frames.get(frames.size() - 1);
+        Assert.assertEquals(1024, last.getGeneration());
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(classification.classOf(i), last.classOf(i));
+            Assert.assertEquals(history.latitude(i), last.latitude(i), 0.0);
+            Assert.assertEquals(history.longitude(i), last.longitude(i), 0.0);
+        }
+    }
+
+    private static void drain(final Queue<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for the ClusterPyramid class.
+ */
+public class ClusterPyramidTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testClusterPyramidSimple() {
+        ClusterPyramid pyramid = new ClusterPyramid(4);
+        int[] result = new int[4];
+        pyramid.update(0, 40.1, -88.2);
+        pyramid.update(1, 40.2, -88.3);
+        pyramid.update(2, -33.9, 151.2);
+        pyramid.update(3, Double.NaN, 0.0);
+        Assert.assertEquals(-1, pyramid.cellOf(0, 3));
+
+        Assert.assertEquals(1, pyramid.cells(0));
+        int world = pyramid.cellOf(0, 0);
+        Assert.assertEquals(3, pyramid.count(0, world));
+        Assert.assertEquals((40.1 + 40.2 - 33.9) / 3, pyramid.latitude(0, world), 1e-9);
+
+        Assert.assertEquals(2, pyramid.cells(1));
+        Assert.assertEquals(pyramid.cellOf(1, 0), pyramid.cellOf(1, 1));
+        Assert.assertNotEquals(pyramid.cellOf(1, 0), pyramid.cellOf(1, 2));
+        Assert.assertEquals(3, pyramid.cells(ClusterPyramid.LEVELS - 1));
+
+        int level = 8;
+        Assert.assertEquals(1, pyramid.query(level, 40.0, -89.0, 41.0, -88.0, result));
+        Assert.assertEquals(pyramid.cellOf(level, 0), result[0]);
+        Assert.assertEquals(2, pyramid.count(level, result[0]));
+        Assert.assertEquals(-88.25, pyramid.longitude(level, result[0]), 1e-9);
+        Assert.assertEquals(1, pyramid.query(level, -40.0, 150.0, -30.0, -170.0, result));
+        Assert.assertEquals(pyramid.cellOf(level, 2), result[0]);
+        Assert.assertEquals(2, pyramid.query(level, -90.0, -180.0, 90.0, 180.0, result));
+
+        pyramid.watch(level);
+        int cell = pyramid.cellOf(level, 1);
+        pyramid.remove(1);
+        pyramid.remove(0);
+        Assert.assertEquals(1, pyramid.changes(result));
+        Assert.assertEquals(cell, result[0]);
+        Assert.assertEquals(0, pyramid.count(level, cell));
+        Assert.assertTrue(Double.isNaN(pyramid.latitude(level, cell)));
+        Assert.assertEquals(0, pyramid.changes(result));
+        Assert.assertEquals(1, pyramid.cells(0));
+    }
+
+    @Test(timeout=5000)
+    public void testClusterPyramidRandom() {
+        for (int run = 0; run < 16; run++) {
+            int size = random.nextInt(200) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            ClusterPyramid pyramid = new ClusterPyramid(size);
+            int[] result = new int[size];
+            double spread = Math.pow(10, -random.nextInt(4));
+            int level = random.nextInt(ClusterPyramid.LEVELS);
+            pyramid.watch(level);
+            int[] watchedCells = new int[size];
+            Arrays.fill(watchedCells, -1);
+            for (int step = 0; step < 256; step++) {
+                int slot = random.nextInt(size);
+                boolean[] changedCells = new boolean[size];
+                if (watchedCells[slot] != -1) {
+                    changedCells[watchedCells[slot]] = true;
+                }
+                if (random.nextInt(8) == 0) {
+                    validLocations[slot] = false;
+                    pyramid.remove(slot);
+                } else {
+                    latitudes[slot] = 40.0 + random.nextInt(100) * spread;
+                    longitudes[slot] = -88.0 + random.nextInt(100) * spread;
+                    validLocations[slot] = true;
+                    pyramid.update(slot, latitudes[slot], longitudes[slot]);
+                    changedCells[pyramid.cellOf(level, slot)] = true;
+                }
+                watchedCells[slot] = pyramid.cellOf(level, slot);
+                int changedCount = pyramid.changes(result);
+                for (int i = 0; i < changedCount; i++) {
+                    Assert.assertTrue(changedCells[result[i]]);
+                    changedCells[result[i]] = false;
+                }
+                for (boolean changed : changedCells) {
+                    Assert.assertFalse(changed);
+                }
+                check(pyramid, latitudes, longitudes, validLocations, random.nextInt(ClusterPyramid.LEVELS));
+                check(pyramid, latitudes, longitudes, validLocations, level);
+            }
+        }
+    }
+
+    private static void check(final ClusterPyramid pyramid, final double[] latitudes, final double[] longitudes,
+                              final boolean[] validLocations, final int level) {
+        int size = latitudes.length;
+        int[] counts = new int[size];
+        double[] latitudeSums = new double[size];
+        double[] longitudeSums = new double[size];
+        int cells = 0;
+        for (int i = 0; i < size; i++) {
+            int cell = pyramid.cellOf(level, i);
+            Assert.assertEquals(validLocations[i], cell != -1);
+            if (cell == -1) {
+                continue;
+            }
+            if (counts[cell] == 0) {
+                cells++;
+            }
+            counts[cell]++;
+            latitudeSums[cell] += latitudes[i];
+            longitudeSums[cell] += longitudes[i];
+        }
+        Assert.assertEquals(cells, pyramid.cells(level));
+        for (int cell = 0; cell < size; cell++) {
+            Assert.assertEquals(counts[cell], pyramid.count(level, cell));
+            if (counts[cell] > 0) {
+                Assert.assertEquals(latitudeSums[cell] / counts[cell], pyramid.latitude(level, cell), 1e-6);
+                Assert.assertEquals(longitudeSums[cell] / counts[cell], pyramid.longitude(level, cell), 1e-6);
+            }
+        }
+
+        int[] result = new int[size];
+        double south = 40.0 + random.nextDouble() * 100 * Math.pow(10, -random.nextInt(4));
+        double west = -88.0 + random.nextDouble() * 100 * Math.pow(10, -random.nextInt(4));
+        double north = south + random.nextDouble() * Math.pow(10, -random.nextInt(4));
+        double east = west + random.nextDouble() * Math.pow(10, -random.nextInt(4));
+        boolean[] found = new boolean[size];
+        int count = pyramid.query(level, south, west, north, east, result);
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(counts[result[i]] > 0);
+            Assert.assertFalse(found[result[i]]);
+            found[result[i]] = true;
+        }
+        for (int i = 0; i < size; i++) {
+            if (validLocations[i] && latitudes[i] >= south && latitudes[i] <= north
+                && longitudes[i] >= west && longitudes[i] <= east) {
+                Assert.assertTrue(found[pyramid.cellOf(level, i)]);
+            }
+        }
+        Assert.assertEquals(cells, pyramid.query(level, -90.0, -180.0, 90.0, 180.0, result));
+    }
+}
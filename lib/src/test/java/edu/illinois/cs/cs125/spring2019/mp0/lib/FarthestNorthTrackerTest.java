@@ -0,0 +1,65 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the FarthestNorthTracker class.
+ */
+public class FarthestNorthTrackerTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testFarthestNorthTrackerSimple() {
+        FarthestNorthTracker tracker = new FarthestNorthTracker(3);
+        Assert.assertEquals(-1, tracker.farthestNorth());
+        tracker.update(1, 10.0);
+        Assert.assertEquals(1, tracker.farthestNorth());
+        tracker.update(2, 10.0);
+        Assert.assertEquals(1, tracker.farthestNorth());
+        tracker.update(0, 10.0);
+        Assert.assertEquals(0, tracker.farthestNorth());
+        tracker.update(0, Double.NaN);
+        Assert.assertEquals(1, tracker.farthestNorth());
+        tracker.update(2, 20.0);
+        Assert.assertEquals(2, tracker.farthestNorth());
+        tracker.remove(2);
+        Assert.assertEquals(1, tracker.farthestNorth());
+        tracker.remove(1);
+        Assert.assertEquals(-1, tracker.farthestNorth());
+        Assert.assertEquals(-1, new FarthestNorthTracker(0).farthestNorth());
+    }
+
+    @Test(timeout=2000)
+    public void testFarthestNorthTrackerRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(100) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            FarthestNorthTracker tracker = new FarthestNorthTracker(size);
+            int current = -1;
+            for (int step = 0; step < 1024; step++) {
+                if (random.nextInt(8) == 0) {
+                    int evicted = random.nextInt(size);
+                    validLocations[evicted] = false;
+                    tracker.remove(evicted);
+                } else {
+                    current = (current + 1) % size;
+                    latitudes[current] = random.nextInt(16) - 8.0;
+                    if (random.nextInt(32) == 0) {
+                        latitudes[current] = Double.NaN;
+                    }
+                    validLocations[current] = true;
+                    tracker.update(current, latitudes[current]);
+                }
+                Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+                    tracker.farthestNorth());
+            }
+            Assert.assertEquals(tracker.farthestNorth(),
+                FarthestNorthTracker.of(latitudes, validLocations).farthestNorth());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for the GeohashIndex class.
+ */
+public class GeohashIndexTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testGeohashIndexSimple() {
+        GeohashIndex index = new GeohashIndex(4);
+        int[] result = new int[4];
+        index.update(0, 40.092802, -88.220097);
+        index.update(1, 40.1, -88.2);
+        index.update(2, 57.64911, 10.40744);
+        index.update(3, Double.NaN, 0.0);
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(2, index.query(Geohash.fromString("dp1"), 15, result));
+        Assert.assertEquals(0, result[0]);
+        Assert.assertEquals(1, result[1]);
+        Assert.assertEquals(1, index.sameCell(2, 20, result));
+        Assert.assertEquals(2, result[0]);
+        Assert.assertEquals(3, index.count(0, 0));
+        Assert.assertEquals(0, index.sameCell(3, 20, result));
+        index.remove(1);
+        Assert.assertEquals(1, index.count(Geohash.fromString("dp1"), 15));
+        index.update(0, 57.64911, 10.40744);
+        Assert.assertEquals(2, index.sameCell(2, Geohash.MAX_BITS, result));
+        Assert.assertEquals(0, index.count(Geohash.fromString("dp1"), 15));
+        Assert.assertEquals(2, index.count(Geohash.fromString("zzzz"), 20) + index.count(Geohash.fromString("u"), 5));
+    }
+
+    @Test(timeout=2000)
+    public void testGeohashIndexRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(100) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            GeohashIndex index = new GeohashIndex(size);
+            int[] result = new int[size];
+            int current = -1;
+            for (int step = 0; step < 256; step++) {
+                if (random.nextInt(8) == 0) {
+                    int evicted = random.nextInt(size);
+                    validLocations[evicted] = false;
+                    index.remove(evicted);
+                } else {
+                    current = (current + 1) % size;
+                    latitudes[current] = random.nextDouble() * 180.0 - 90.0;
+                    longitudes[current] = random.nextDouble() * 360.0 - 180.0;
+                    validLocations[current] = true;
+                    index.update(current, latitudes[current], longitudes[current]);
+                }
+                int bits = random.nextInt(Geohash.MAX_BITS / 4);
+                long prefix = Geohash.encode(random.nextDouble() * 180.0 - 90.0,
+                    random.nextDouble() * 360.0 - 180.0, bits);
+                int[] expected = new int[size];
+                int expectedCount = 0;
+                for (int i = 0; i < size; i++) {
+                    if (validLocations[i] && Geohash.encode(latitudes[i], longitudes[i], bits) == prefix) {
+                        expected[expectedCount++] = i;
+                    }
+                }
+                int count = index.query(prefix, bits, result);
+                Assert.assertEquals(expectedCount, count);
+                Assert.assertEquals(expectedCount, index.count(prefix, bits));
+                int[] actual = Arrays.copyOf(result, count);
+                Arrays.sort(actual);
+                Assert.assertArrayEquals(Arrays.copyOf(expected, expectedCount), actual);
+                for (int position = 1; position < index.size(); position++) {
+                    int previous = index.slotAt(position - 1);
+                    int next = index.slotAt(position);
+                    Assert.assertTrue(Geohash.encode(latitudes[previous], longitudes[previous])
+                        <= Geohash.encode(latitudes[next], longitudes[next]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the Geohash class.
+ */
+public class GeohashTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testGeohashKnownValues() {
+        Assert.assertEquals("u4pruydqqvj", Geohash.toString(Geohash.encode(57.64911, 10.40744, 55), 55));
+        Assert.assertEquals("dp1k", Geohash.toString(Geohash.encode(40.092802, -88.220097, 20), 20));
+        Assert.assertEquals("s00000000000", Geohash.toString(Geohash.encode(0.0, 0.0), Geohash.MAX_BITS));
+        Assert.assertEquals("zzzzzzzzzzzz", Geohash.toString(Geohash.encode(90.0, 180.0), Geohash.MAX_BITS));
+        Assert.assertEquals(Geohash.fromString("u4pruydqqvj"), Geohash.fromString("U4PRUYDQQVJ"));
+        long hash = Geohash.fromString("ezs42");
+        Assert.assertEquals(42.605, Geohash.decodeLatitude(hash, 25), 0.03);
+        Assert.assertEquals(-5.603, Geohash.decodeLongitude(hash, 25), 0.03);
+        Assert.assertEquals(0, Geohash.encode(12.0, 34.0, 0));
+    }
+
+    @Test(timeout=1000)
+    public void testGeohashRandom() {
+        for (int run = 0; run < 10000; run++) {
+            double latitude = random.nextDouble() * 180.0 - 90.0;
+            double longitude = random.nextDouble() * 360.0 - 180.0;
+            int bits = random.nextInt(Geohash.MAX_BITS) + 1;
+            long hash = Geohash.encode(latitude, longitude, bits);
+            Assert.assertEquals(hash, Geohash.fromString(Geohash.toString(Geohash.encode(latitude, longitude),
+                Geohash.MAX_BITS)) >>> (Geohash.MAX_BITS - bits));
+            double height = 180.0 / (1L << (bits / 2));
+            double width = 360.0 / (1L << (bits - bits / 2));
+            Assert.assertEquals(latitude, Geohash.decodeLatitude(hash, bits), height / 2);
+            Assert.assertEquals(longitude, Geohash.decodeLongitude(hash, bits), width / 2);
+            Assert.assertEquals(hash, Geohash.encode(Geohash.decodeLatitude(hash, bits),
+                Geohash.decodeLongitude(hash, bits), bits));
+            int prefixBits = random.nextInt(bits + 1);
+            Assert.assertEquals(Geohash.encode(latitude, longitude, prefixBits),
+                Geohash.prefix(hash, bits, prefixBits));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Test suite for the HistorySnapshot class.
+ */
+public class HistorySnapshotTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testHistorySnapshotSimple() {
+        LocationHistory history = new LocationHistory(4);
+        double[] latitudes = new double[4];
+        double[] longitudes = new double[4];
+        Assert.assertEquals(0, HistorySnapshot.decode(HistorySnapshot.encode(history), latitudes, longitudes));
+
+        history.append(40.1, -88.2);
+        history.append(Double.NaN, -88.2);
+        history.append(40.1000001, -88.2000001);
+        ByteBuffer snapshot = HistorySnapshot.encode(history);
+        Assert.assertTrue(snapshot.remaining() < 3 * 2 * Double.BYTES);
+        Assert.assertEquals(3, HistorySnapshot.decode(snapshot, latitudes, longitudes));
+        Assert.assertEquals(0, snapshot.position());
+        Assert.assertEquals(40.1, latitudes[0], 1e-9);
+        Assert.assertEquals(-88.2, longitudes[0], 1e-9);
+        Assert.assertTrue(Double.isNaN(latitudes[1]));
+        Assert.assertTrue(Double.isNaN(longitudes[1]));
+        Assert.assertEquals(40.1000001, latitudes[2], 1e-9);
+        Assert.assertEquals(-88.2000001, longitudes[2], 1e-9);
+
+        history.append(-33.9, 151.2);
+        history.append(-33.9, -179.9);
+        double[] shortLatitudes = new double[2];
+        double[] shortLongitudes = new double[2];
+        Assert.assertEquals(2, HistorySnapshot.decode(HistorySnapshot.encode(history), shortLatitudes,
+            shortLongitudes));
+        Assert.assertArrayEquals(new double[] {-33.9, -33.9}, shortLatitudes, 1e-9);
+        Assert.assertArrayEquals(new double[] {151.2, -179.9}, shortLongitudes, 1e-9);
+
+        try {
+            HistorySnapshot.decode(ByteBuffer.allocate(12), latitudes, longitudes);
+            Assert.fail("decode should reject a buffer without the magic number");
+        } catch (IllegalArgumentException ignored) { }
+        ByteBuffer truncated = HistorySnapshot.encode(history);
+        truncated.limit(truncated.limit() - 1);
+        try {
+            HistorySnapshot.decode(truncated, latitudes, longitudes);
+            Assert.fail("decode should reject a truncated snapshot");
+        } catch (IllegalArgumentException ignored) { }
+    }
+
+    @Test(timeout=2000)
+    public void testHistorySnapshotRandom() {
+        for (int run = 0; run < 32; run++) {
+            int capacity = random.nextInt(800) + 1;
+            LocationHistory history = new LocationHistory(capacity);
+            int steps = random.nextInt(2 * capacity);
+            double spread = Math.pow(10, -random.nextInt(6));
+            double latitude = random.nextDouble() * 160.0 - 80.0;
+            double longitude = random.nextDouble() * 340.0 - 170.0;
+            for (int step = 0; step < steps; step++) {
+                if (random.nextInt(20) == 0) {
+                    history.append(Double.NaN, longitude);
+                    continue;
+                }
+                latitude = Math.max(-90.0, Math.min(90.0, latitude + (random.nextDouble() - 0.5) * spread));
+                longitude = Math.max(-180.0, Math.min(180.0, longitude + (random.nextDouble() - 0.5) * spread));
+                history.append(latitude, longitude);
+            }
+
+            int length = random.nextInt(capacity) + 1;
+            double[] latitudes = new double[length];
+            double[] longitudes = new double[length];
+            int count = HistorySnapshot.decode(HistorySnapshot.encode(history), latitudes, longitudes);
+            Assert.assertEquals(Math.min(length, history.size()), count);
+            int skipped = history.size() - count;
+            for (int i = 0; i < count; i++) {
+                int index = history.indexOf(skipped + i);
+                if (Double.isNaN(history.latitude(index))) {
+                    Assert.assertTrue(Double.isNaN(latitudes[i]));
+                    Assert.assertTrue(Double.isNaN(longitudes[i]));
+                } else {
+                    Assert.assertEquals(history.latitude(index), latitudes[i], 0.5 / HistorySnapshot.UNITS_PER_DEGREE);
+                    Assert.assertEquals(history.longitude(index), longitudes[i],
+                        0.5 / HistorySnapshot.UNITS_PER_DEGREE);
+                }
+            }
+        }
+    }
+}
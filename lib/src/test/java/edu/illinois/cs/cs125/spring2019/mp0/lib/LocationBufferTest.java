@@ -0,0 +1,74 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the LocationBuffer class.
+ */
+public class LocationBufferTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testLocationBufferSimple() {
+        LocationBuffer buffer = new LocationBuffer(3);
+        double[] latitudes = new double[3];
+        double[] longitudes = new double[3];
+        long[] times = new long[3];
+        Assert.assertEquals(0, buffer.drain(latitudes, longitudes, times));
+
+        Assert.assertTrue(buffer.offer(1.0, -1.0, 10L));
+        Assert.assertFalse(buffer.offer(2.0, -2.0, 20L));
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals(2, buffer.drain(latitudes, longitudes, times));
+        Assert.assertArrayEquals(new double[] {1.0, 2.0}, new double[] {latitudes[0], latitudes[1]}, 0.0);
+        Assert.assertEquals(-2.0, longitudes[1], 0.0);
+        Assert.assertEquals(20L, times[1]);
+        Assert.assertEquals(1, buffer.getCoalesced());
+        Assert.assertEquals(0, buffer.getDropped());
+
+        Assert.assertTrue(buffer.offer(3.0, -3.0, 30L));
+        for (int i = 4; i <= 7; i++) {
+            Assert.assertFalse(buffer.offer(i, -i, i));
+        }
+        Assert.assertEquals(2, buffer.getDropped());
+        Assert.assertEquals(3, buffer.drain(latitudes, longitudes, times));
+        Assert.assertArrayEquals(new double[] {5.0, 6.0, 7.0}, latitudes, 0.0);
+        Assert.assertArrayEquals(new double[] {-5.0, -6.0, -7.0}, longitudes, 0.0);
+        Assert.assertArrayEquals(new long[] {5L, 6L, 7L}, times);
+        Assert.assertEquals(3, buffer.getCoalesced());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test(timeout=5000)
+    public void testLocationBufferThreaded() throws InterruptedException {
+        int count = 100000;
+        LocationBuffer buffer = new LocationBuffer(random.nextInt(64) + 1);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                buffer.offer(i, -i, i);
+            }
+        });
+        producer.start();
+        double[] latitudes = new double[buffer.capacity()];
+        double[] longitudes = new double[buffer.capacity()];
+        long[] times = new long[buffer.capacity()];
+        double last = -1;
+        long received = 0;
+        while (producer.isAlive() || buffer.size() > 0) {
+            int drained = buffer.drain(latitudes, longitudes, times);
+            for (int i = 0; i < drained; i++) {
+                Assert.assertTrue(latitudes[i] > last);
+                Assert.assertEquals(-latitudes[i], longitudes[i], 0.0);
+                Assert.assertEquals((long) latitudes[i], times[i]);
+                last = latitudes[i];
+            }
+            received += drained;
+        }
+        producer.join();
+        Assert.assertEquals(count - 1, last, 0.0);
+        Assert.assertEquals(count, received + buffer.getDropped());
+    }
+}
@@ -0,0 +1,75 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the LocationHistory class.
+ */
+public class LocationHistoryTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testLocationHistorySimple() {
+        LocationHistory history = new LocationHistory(3);
+        Assert.assertTrue(history.isEmpty());
+        Assert.assertEquals(-1, history.currentIndex());
+        Assert.assertEquals(3, history.capacity());
+
+        Assert.assertEquals(0, history.append(1.0, 10.0));
+        Assert.assertEquals(1, history.append(2.0, 20.0));
+        Assert.assertEquals(2, history.size());
+        Assert.assertEquals(0, history.indexOf(0));
+        Assert.assertEquals(1, history.indexOf(1));
+        Assert.assertArrayEquals(new boolean[] {true, true, false}, history.validLocations());
+
+        Assert.assertEquals(2, history.append(3.0, 30.0));
+        Assert.assertEquals(0, history.append(4.0, 40.0));
+        Assert.assertEquals(3, history.size());
+        Assert.assertEquals(0, history.currentIndex());
+        Assert.assertEquals(1, history.indexOf(0));
+        Assert.assertEquals(2, history.indexOf(1));
+        Assert.assertEquals(0, history.indexOf(2));
+        Assert.assertArrayEquals(new double[] {4.0, 2.0, 3.0}, history.latitudes(), 0.0);
+        Assert.assertArrayEquals(new double[] {40.0, 20.0, 30.0}, history.longitudes(), 0.0);
+        Assert.assertEquals(0, Locator.farthestNorth(history.latitudes(), history.longitudes(),
+            history.validLocations()));
+
+        history.clear();
+        Assert.assertTrue(history.isEmpty());
+        Assert.assertArrayEquals(new boolean[] {false, false, false}, history.validLocations());
+    }
+
+    @Test(timeout=1000)
+    public void testLocationHistoryListeners() {
+        for (int run = 0; run < 32; run++) {
+            int capacity = random.nextInt(16) + 1;
+            LocationHistory history = new LocationHistory(capacity);
+            FarthestNorthTracker tracker = new FarthestNorthTracker(capacity);
+            VisitIndex visitIndex = new VisitIndex(capacity);
+            history.addListener(tracker);
+            history.addListener(visitIndex);
+            for (int step = 0; step < 256; step++) {
+                if (random.nextInt(64) == 0) {
+                    history.clear();
+                } else {
+                    history.append(random.nextInt(4), random.nextInt(4));
+                }
+                Assert.assertEquals(Locator.farthestNorth(history.latitudes(), history.longitudes(),
+                    history.validLocations()), tracker.farthestNorth());
+                for (int i = 0; i < capacity; i++) {
+                    Assert.assertEquals(Locator.beenHere(i, history.latitudes(), history.longitudes(),
+                        history.validLocations()), visitIndex.beenHere(i));
+                }
+                for (int position = 0; position < history.size(); position++) {
+                    Assert.assertTrue(history.isValid(history.indexOf(position)));
+                }
+                if (!history.isEmpty()) {
+                    Assert.assertEquals(history.currentIndex(), history.indexOf(history.size() - 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for the LocationQuadtree class.
+ */
+public class LocationQuadtreeTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testLocationQuadtreeSimple() {
+        LocationQuadtree tree = new LocationQuadtree(4);
+        int[] result = new int[4];
+        tree.update(0, 40.1, -88.2);
+        tree.update(1, 40.2, -88.3);
+        tree.update(2, 0.0, 179.5);
+        tree.update(3, Double.NaN, 0.0);
+        Assert.assertEquals(3, tree.size());
+        Assert.assertEquals(2, tree.query(40.0, -89.0, 41.0, -88.0, result));
+        Assert.assertEquals(1, tree.query(40.1, -88.2, 40.1, -88.2, result));
+        Assert.assertEquals(0, result[0]);
+        Assert.assertEquals(1, tree.query(-1.0, 179.0, 1.0, -179.0, result));
+        Assert.assertEquals(2, result[0]);
+        Assert.assertEquals(3, tree.query(-90.0, -180.0, 90.0, 180.0, new int[1]));
+        tree.remove(0);
+        Assert.assertEquals(1, tree.query(40.0, -89.0, 41.0, -88.0, result));
+        Assert.assertEquals(1, result[0]);
+    }
+
+    @Test(timeout=100)
+    public void testLocationQuadtreeSplitsAndMerges() {
+        int size = 1000;
+        LocationQuadtree tree = new LocationQuadtree(size);
+        for (int i = 0; i < size; i++) {
+            tree.update(i, 40.0 + i * 0.001, -88.0);
+        }
+        Assert.assertTrue(tree.nodes() > 1);
+        for (int i = 0; i < size; i++) {
+            tree.update(i, 40.0, -88.0);
+        }
+        Assert.assertEquals(size, tree.query(40.0, -88.0, 40.0, -88.0, new int[size]));
+        for (int i = 0; i < size; i++) {
+            tree.remove(i);
+        }
+        Assert.assertEquals(0, tree.size());
+        Assert.assertEquals(1, tree.nodes());
+    }
+
+    @Test(timeout=5000)
+    public void testLocationQuadtreeRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(500) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            LocationQuadtree tree = new LocationQuadtree(size);
+            int[] result = new int[size];
+            double spread = Math.pow(10, -random.nextInt(5));
+            int current = -1;
+            for (int step = 0; step < 1024; step++) {
+                if (random.nextInt(8) == 0) {
+                    int evicted = random.nextInt(size);
+                    validLocations[evicted] = false;
+                    tree.remove(evicted);
+                } else {
+                    current = (current + 1) % size;
+                    latitudes[current] = 40.0 + random.nextInt(100) * spread;
+                    longitudes[current] = -88.0 + random.nextInt(100) * spread;
+                    validLocations[current] = true;
+                    tree.update(current, latitudes[current], longitudes[current]);
+                }
+                double south = 40.0 + random.nextInt(100) * spread;
+                double west = -88.0 + random.nextInt(100) * spread;
+                double north = south + random.nextInt(50) * spread;
+                double east = west + random.nextInt(50) * spread;
+                int[] expected = new int[size];
+                int expectedCount = 0;
+                for (int i = 0; i < size; i++) {
+                    if (validLocations[i] && latitudes[i] >= south && latitudes[i] <= north
+                        && longitudes[i] >= west && longitudes[i] <= east) {
+                        expected[expectedCount++] = i;
+                    }
+                }
+                int count = tree.query(south, west, north, east, result);
+                Assert.assertEquals(expectedCount, count);
+                int[] actual = Arrays.copyOf(result, count);
+                Arrays.sort(actual);
+                Assert.assertArrayEquals(Arrays.copyOf(expected, expectedCount), actual);
+            }
+            for (int i = 0; i < size; i++) {
+                tree.remove(i);
+            }
+            Assert.assertEquals(1, tree.nodes());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Differential test suite comparing LocatorKernels against Locator.
+ */
+public class LocatorKernelsTest {
+    private static Random random = new Random();
+
+    private static void assertSameAsLocator(final double[] latitudes, final boolean[] validLocations) {
+        double[] longitudes = new double[latitudes.length];
+        Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+            LocatorKernels.farthestNorth(latitudes, longitudes, validLocations));
+    }
+
+    @Test(timeout=100)
+    public void testFarthestNorthKernelSimple() {
+        assertSameAsLocator(new double[] {}, new boolean[] {});
+        assertSameAsLocator(new double[] {10.0}, new boolean[] {false});
+        assertSameAsLocator(new double[] {10.0, 10.0, 10.0, 10.0, 10.0}, new boolean[] {false, true, true, true, true});
+        assertSameAsLocator(new double[] {1.0, 2.0, 3.0, 4.0, 4.0}, new boolean[] {true, true, true, true, true});
+        assertSameAsLocator(new double[] {Double.NaN, -5.0}, new boolean[] {true, true});
+        assertSameAsLocator(new double[] {Double.NaN, Double.NaN}, new boolean[] {true, true});
+        assertSameAsLocator(new double[] {-100.0, -120.0}, new boolean[] {true, true});
+        assertSameAsLocator(new double[] {Double.POSITIVE_INFINITY, 90.0}, new boolean[] {true, true});
+    }
+
+    @Test(timeout=2000)
+    public void testFarthestNorthKernelRandom() {
+        for (int run = 0; run < 1024; run++) {
+            int size = random.nextInt(64);
+            double[] latitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            int mode = random.nextInt(4);
+            for (int i = 0; i < size; i++) {
+                if (mode == 0) {
+                    // Few distinct values to produce lots of ties.
+                    latitudes[i] = random.nextInt(4);
+                } else {
+                    latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+                }
+                if (random.nextInt(16) == 0) {
+                    latitudes[i] = Double.NaN;
+                }
+                validLocations[i] = mode != 1 && random.nextBoolean();
+            }
+            assertSameAsLocator(latitudes, validLocations);
+        }
+    }
+
+    @Test(timeout=2000)
+    public void testFarthestNorthKernelLarge() {
+        double[] latitudes = new double[1024 * 1024];
+        boolean[] validLocations = new boolean[latitudes.length];
+        assertSameAsLocator(latitudes, validLocations);
+        Arrays.fill(validLocations, true);
+        assertSameAsLocator(latitudes, validLocations);
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextInt(1024) / 16.0;
+        }
+        assertSameAsLocator(latitudes, validLocations);
+    }
+}
@@ -100,6 +100,133 @@ public class LocatorTest {
         }
     }
 
+    @Test(timeout=100)
+    public void testNextRandomLocationIntoBuffer() {
+        double[] result = new double[2];
+        Locator.nextRandomLocation(8.0, 7.0, 1.0, 1.0, -1.0, result);
+        Assert.assertEquals(9.0, result[0], 0.0);
+        Assert.assertEquals(6.0, result[1], 0.0);
+        Locator.nextRandomLocation(8.0, 7.0, 0.0, 1.0, -1.0, result);
+        Assert.assertEquals(8.0, result[0], 0.0);
+        Assert.assertEquals(7.0, result[1], 0.0);
+        Locator.nextRandomLocation(90.0, -179.0, 1.0, 2.0, -2.0, result);
+        Assert.assertEquals(90.0, result[0], 0.0);
+        Assert.assertEquals(-180.0, result[1], 0.0);
+
+        double[] latitudes = new double[] {88.0, 0.0, 0.0, 0.0};
+        double[] longitudes = new double[] {10.0, 0.0, 0.0, 0.0};
+        Locator.nextRandomLocations(latitudes, longitudes, 1.0, 1.0, -3.0);
+        Assert.assertArrayEquals(new double[] {88.0, 89.0, 90.0, 90.0}, latitudes, 0.0);
+        Assert.assertArrayEquals(new double[] {10.0, 7.0, 4.0, 1.0}, longitudes, 0.0);
+        Locator.nextRandomLocations(latitudes, longitudes, 0.0, 1.0, -3.0);
+        Assert.assertArrayEquals(new double[] {88.0, 88.0, 88.0, 88.0}, latitudes, 0.0);
+        Assert.assertArrayEquals(new double[] {10.0, 10.0, 10.0, 10.0}, longitudes, 0.0);
+    }
+
+    @Test(timeout=5000)
+    public void testNextRandomLocationAllocationFree() {
+        double[] result = new double[2];
+        double[] latitudes = new double[1024];
+        double[] longitudes = new double[1024];
+        long allocated = AllocationMeter.allocatedBytes(() -> {
+            for (int i = 0; i < 1024; i++) {
+                Locator.nextRandomLocation(result[0], result[1], 0.5, 0.001, -0.002, result);
+            }
+            Locator.nextRandomLocations(latitudes, longitudes, 0.5, 0.001, -0.002);
+        }, 1024);
+        // Allow a little slack for the measurement calls themselves.
+        Assert.assertTrue("hot path allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test(timeout=100)
+    public void testRepeatedLocationsSimple() {
+        Assert.assertArrayEquals(new boolean[] {false}, Locator.repeatedLocations(new double[] {8.0},
+            new double[] {8.0}, new boolean[] {true}));
+        Assert.assertArrayEquals(new boolean[] {true, true}, Locator.repeatedLocations(new double[] {8.0, 8.0},
+            new double[] {8.0, 8.0}, new boolean[] {true, true}));
+        Assert.assertArrayEquals(new boolean[] {false, false}, Locator.repeatedLocations(new double[] {8.0, 8.0},
+            new double[] {8.0, 8.0}, new boolean[] {true, false}));
+        Assert.assertArrayEquals(new boolean[] {true, false, true},
+            Locator.repeatedLocations(new double[] {7.0, 8.0, 7.0}, new double[] {8.0, 8.0, 8.0},
+                new boolean[] {true, true, true}));
+        Assert.assertArrayEquals(new boolean[] {true, true},
+            Locator.repeatedLocations(new double[] {0.0, -0.0}, new double[] {-0.0, 0.0},
+                new boolean[] {true, true}));
+        Assert.assertArrayEquals(new boolean[] {false, false},
+            Locator.repeatedLocations(new double[] {Double.NaN, Double.NaN}, new double[] {1.0, 1.0},
+                new boolean[] {true, true}));
+    }
+
+    @Test(timeout=100)
+    public void testTableSizeFor() {
+        Assert.assertEquals(2, Coordinates.tableSizeFor(0));
+        Assert.assertEquals(16, Coordinates.tableSizeFor(5));
+        Assert.assertEquals(1 << 30, Coordinates.tableSizeFor(1 << 29));
+        Assert.assertEquals(1 << 30, Coordinates.tableSizeFor((1 << 29) + 1));
+        Assert.assertEquals(1 << 30, Coordinates.tableSizeFor((1 << 30) - 1));
+        try {
+            Coordinates.tableSizeFor(1 << 30);
+            Assert.fail("tableSizeFor should reject sizes that could fill the largest table");
+        } catch (IllegalArgumentException ignored) { }
+    }
+
+    @Test(timeout=2000)
+    public void testRepeatedLocationsRandom() {
+        for (int run = 0; run < 64; run++) {
+            int size = random.nextInt(256) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                latitudes[i] = random.nextInt(8);
+                longitudes[i] = random.nextInt(8);
+                validLocations[i] = random.nextBoolean();
+            }
+            boolean[] repeated = Locator.repeatedLocations(latitudes, longitudes, validLocations);
+            for (int i = 0; i < size; i++) {
+                boolean expected = validLocations[i] && Locator.beenHere(i, latitudes, longitudes, validLocations);
+                Assert.assertEquals(expected, repeated[i]);
+            }
+        }
+    }
+
+    @Test(timeout=2000)
+    public void testValidityMaskOverloadsRandom() {
+        for (int run = 0; run < 256; run++) {
+            int size = random.nextInt(200) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            int density = random.nextInt(4) + 1;
+            for (int i = 0; i < size; i++) {
+                latitudes[i] = random.nextInt(4);
+                longitudes[i] = random.nextInt(4);
+                validLocations[i] = random.nextInt(density) == 0;
+            }
+            long[] validMask = ValidityMask.pack(validLocations);
+            Assert.assertEquals(ValidityMask.words(size), validMask.length);
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(validLocations[i], ValidityMask.isValid(validMask, i));
+            }
+            // Stray bits past the end of the arrays must be ignored.
+            long[] paddedMask = new long[validMask.length + 1];
+            System.arraycopy(validMask, 0, paddedMask, 0, validMask.length);
+            paddedMask[validMask.length] = -1L;
+            Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+                Locator.farthestNorth(latitudes, longitudes, validMask));
+            Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+                Locator.farthestNorth(latitudes, longitudes, paddedMask));
+            Assert.assertArrayEquals(Locator.repeatedLocations(latitudes, longitudes, validLocations),
+                Locator.repeatedLocations(latitudes, longitudes, paddedMask));
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(Locator.beenHere(i, latitudes, longitudes, validLocations),
+                    Locator.beenHere(i, latitudes, longitudes, paddedMask));
+            }
+            ValidityMask.setValid(validMask, 0, !validLocations[0]);
+            Assert.assertEquals(!validLocations[0], ValidityMask.isValid(validMask, 0));
+        }
+    }
+
     // Solution takes 6ms
     @Test(timeout=100)
     public void testFarthestNorthRandom() {
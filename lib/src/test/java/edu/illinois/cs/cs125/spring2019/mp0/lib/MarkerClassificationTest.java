@@ -0,0 +1,113 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the MarkerClassification class.
+ */
+public class MarkerClassificationTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testMarkerClassificationSimple() {
+        LocationHistory history = new LocationHistory(3);
+        FarthestNorthTracker tracker = new FarthestNorthTracker(3);
+        ProximityIndex index = new ProximityIndex(3, 10.0);
+        MarkerClassification classification = new MarkerClassification(3, tracker, index);
+        history.addListener(classification);
+        history.addListener(tracker);
+        history.addListener(index);
+        int[] changed = new int[3];
+        boolean[] moved = new boolean[3];
+
+        history.append(40.0, -88.0);
+        Assert.assertEquals(1, classification.changes(changed, moved));
+        Assert.assertEquals(0, changed[0]);
+        Assert.assertTrue(moved[0]);
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, classification.classOf(0));
+        Assert.assertEquals(0, classification.changes(changed, moved));
+
+        history.append(39.0, -88.0);
+        Assert.assertEquals(1, classification.changes(changed, moved));
+        Assert.assertEquals(1, changed[0]);
+        Assert.assertEquals(MarkerClassification.CURRENT, classification.classOf(1));
+
+        history.append(39.0 + 5.0 / Haversine.METERS_PER_DEGREE, -88.0);
+        Assert.assertEquals(2, classification.changes(changed, moved));
+        Assert.assertEquals(MarkerClassification.REPEATED, classification.classOf(1));
+        Assert.assertEquals(MarkerClassification.CURRENT, classification.classOf(2));
+
+        history.append(38.0, -88.0);
+        Assert.assertEquals(2, classification.changes(changed, moved));
+        Assert.assertEquals(MarkerClassification.CURRENT, classification.classOf(0));
+        Assert.assertEquals(MarkerClassification.FARTHEST_NORTH, classification.classOf(2));
+
+        history.clear();
+        Assert.assertEquals(3, classification.changes(changed, moved));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(MarkerClassification.HIDDEN, classification.classOf(i));
+            Assert.assertFalse(moved[i]);
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testMarkerClassificationRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(100) + 1;
+            double tolerance = Math.pow(10, random.nextInt(4));
+            double spread = 4 * tolerance / Haversine.METERS_PER_DEGREE;
+            LocationHistory history = new LocationHistory(size);
+            FarthestNorthTracker tracker = new FarthestNorthTracker(size);
+            ProximityIndex index = new ProximityIndex(size, tolerance);
+            MarkerClassification classification = new MarkerClassification(size, tracker, index);
+            history.addListener(tracker);
+            history.addListener(classification);
+            history.addListener(index);
+            int[] drawn = new int[size];
+            int[] changed = new int[size];
+            boolean[] moved = new boolean[size];
+            for (int step = 0; step < 256; step++) {
+                boolean[] written = new boolean[size];
+                if (random.nextInt(64) == 0) {
+                    history.clear();
+                }
+                int appends = random.nextInt(4);
+                for (int i = 0; i < appends; i++) {
+                    history.append(40.0 + random.nextDouble() * spread, -88.0 + random.nextDouble() * spread);
+                    written[history.currentIndex()] = true;
+                }
+                int count = classification.changes(changed, moved);
+                for (int i = 0; i < count; i++) {
+                    Assert.assertEquals(written[changed[i]], moved[i]);
+                    written[changed[i]] = false;
+                    drawn[changed[i]] = classification.classOf(changed[i]);
+                }
+                for (int i = 0; i < size; i++) {
+                    Assert.assertFalse(written[i]);
+                    Assert.assertEquals(bruteForce(i, history, tracker.farthestNorth(), tolerance), drawn[i]);
+                }
+            }
+        }
+    }
+
+    private static int bruteForce(final int index, final LocationHistory history, final int north,
+                                  final double tolerance) {
+        if (!history.isValid(index)) {
+            return MarkerClassification.HIDDEN;
+        } else if (index == north) {
+            return MarkerClassification.FARTHEST_NORTH;
+        } else if (index == history.currentIndex()) {
+            return MarkerClassification.CURRENT;
+        }
+        for (int i = 0; i < history.capacity(); i++) {
+            if (i != index && history.isValid(i) && Haversine.distance(history.latitude(index),
+                history.longitude(index), history.latitude(i), history.longitude(i)) <= tolerance) {
+                return MarkerClassification.REPEATED;
+            }
+        }
+        return MarkerClassification.OTHER;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Random;
+
+/**
+ * Compares nearest-location queries using NearestLocationTree against a brute-force scan of every location.
+ * <p>
+ * The tree's query time should grow roughly with the logarithm of the number of locations, while the scan grows
+ * linearly.
+ */
+public final class NearestLocationTreeBenchmark {
+
+    /** Number of queries timed at each size. */
+    private static final int QUERIES = 1000;
+
+    /** Not instantiable. */
+    private NearestLocationTreeBenchmark() { }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(125);
+        System.out.printf("%10s %14s %18s %18s%n", "size", "build ms", "tree ns/query", "scan ns/query");
+        for (int size = 1000; size <= 1000000; size *= 10) {
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            // A random walk, like the app's history, rather than points spread over the whole globe.
+            double latitude = 40.092802;
+            double longitude = -88.220097;
+            for (int i = 0; i < size; i++) {
+                latitude += random.nextDouble() * 0.002 - 0.001;
+                longitude += random.nextDouble() * 0.004 - 0.002;
+                latitudes[i] = latitude;
+                longitudes[i] = longitude;
+                validLocations[i] = true;
+            }
+            double[] queryLatitudes = new double[QUERIES];
+            double[] queryLongitudes = new double[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                int near = random.nextInt(size);
+                queryLatitudes[i] = latitudes[near] + random.nextDouble() * 0.01 - 0.005;
+                queryLongitudes[i] = longitudes[near] + random.nextDouble() * 0.01 - 0.005;
+            }
+            long build = Benchmark.median(() ->
+                Benchmark.sink += new NearestLocationTree(latitudes, longitudes, validLocations).size());
+            NearestLocationTree tree = new NearestLocationTree(latitudes, longitudes, validLocations);
+            long treeQueries = Benchmark.median(() -> {
+                for (int i = 0; i < QUERIES; i++) {
+                    Benchmark.sink += tree.nearest(queryLatitudes[i], queryLongitudes[i]).getIndex();
+                }
+            });
+            int scanQueries = Math.max(1, QUERIES * 1000 / size);
+            long scan = Benchmark.median(() -> {
+                for (int i = 0; i < scanQueries; i++) {
+                    Benchmark.sink += bruteForce(queryLatitudes[i], queryLongitudes[i], latitudes, longitudes);
+                }
+            });
+            System.out.printf("%10d %14.2f %18d %18d%n", size, build / 1e6, treeQueries / QUERIES,
+                scan / scanQueries);
+        }
+    }
+
+    /**
+     * Find the nearest location by checking every one.
+     *
+     * @param latitude the query latitude
+     * @param longitude the query longitude
+     * @param latitudes the stored latitudes
+     * @param longitudes the stored longitudes
+     * @return the index of the nearest location
+     */
+    private static int bruteForce(final double latitude, final double longitude,
+                                  final double[] latitudes, final double[] longitudes) {
+        int nearest = -1;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < latitudes.length; i++) {
+            double distance = Haversine.distance(latitude, longitude, latitudes[i], longitudes[i]);
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+}
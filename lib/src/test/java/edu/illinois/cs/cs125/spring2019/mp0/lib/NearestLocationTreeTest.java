@@ -0,0 +1,86 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the NearestLocationTree class.
+ */
+public class NearestLocationTreeTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testNearestLocationTreeSimple() {
+        double[] latitudes = {40.1, 40.2, 0.0, 0.0, Double.NaN};
+        double[] longitudes = {-88.2, -88.2, 179.9, -179.9, 0.0};
+        boolean[] validLocations = {true, true, true, false, true};
+        NearestLocationTree tree = new NearestLocationTree(latitudes, longitudes, validLocations);
+        Assert.assertEquals(3, tree.size());
+        Assert.assertEquals(0, tree.nearest(40.11, -88.2).getIndex());
+        Assert.assertEquals(1, tree.nearest(40.1, -88.2, 0).getIndex());
+        Assert.assertEquals(Haversine.distance(40.1, -88.2, 40.2, -88.2),
+            tree.nearest(40.1, -88.2, 0).getDistanceMeters(), 1e-3);
+        Assert.assertEquals(2, tree.nearest(0.0, -179.95).getIndex());
+        Assert.assertEquals(0.0, tree.nearest(0.0, 179.9).getDistanceMeters(), 1e-3);
+        Assert.assertNull(tree.nearest(Double.NaN, 0.0));
+        NearestLocationTree empty = new NearestLocationTree(new double[1], new double[1], new boolean[1]);
+        Assert.assertNull(empty.nearest(0.0, 0.0));
+        NearestLocationTree single = new NearestLocationTree(new double[1], new double[1], new boolean[] {true});
+        Assert.assertNull(single.nearest(0.0, 0.0, 0));
+    }
+
+    @Test(timeout=5000)
+    public void testNearestLocationTreeRandom() {
+        for (int run = 0; run < 64; run++) {
+            int size = random.nextInt(1000) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            boolean clustered = random.nextBoolean();
+            for (int i = 0; i < size; i++) {
+                if (clustered) {
+                    latitudes[i] = 40.0 + random.nextInt(50) * 0.0001;
+                    longitudes[i] = -88.0 + random.nextInt(50) * 0.0001;
+                } else {
+                    latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+                    longitudes[i] = random.nextDouble() * 360.0 - 180.0;
+                }
+                validLocations[i] = random.nextInt(4) != 0;
+            }
+            LocationHistory history = new LocationHistory(size);
+            for (int i = 0; i < size; i++) {
+                history.append(latitudes[i], longitudes[i]);
+            }
+            NearestLocationTree tree = new NearestLocationTree(latitudes, longitudes, validLocations);
+            Assert.assertEquals(size, NearestLocationTree.of(history).size());
+            for (int query = 0; query < 32; query++) {
+                int exclude = random.nextInt(size);
+                double latitude = latitudes[exclude];
+                double longitude = longitudes[exclude];
+                if (!clustered && random.nextBoolean()) {
+                    latitude = random.nextDouble() * 180.0 - 90.0;
+                    longitude = random.nextDouble() * 360.0 - 180.0;
+                }
+                double expected = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < size; i++) {
+                    if (validLocations[i] && i != exclude) {
+                        expected = Math.min(expected, Haversine.distance(latitude, longitude,
+                            latitudes[i], longitudes[i]));
+                    }
+                }
+                NearestLocationTree.Result result = tree.nearest(latitude, longitude, exclude);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    Assert.assertNull(result);
+                    continue;
+                }
+                Assert.assertNotEquals(exclude, result.getIndex());
+                Assert.assertTrue(validLocations[result.getIndex()]);
+                Assert.assertEquals(expected, result.getDistanceMeters(), 1e-3);
+                Assert.assertEquals(expected, Haversine.distance(latitude, longitude,
+                    latitudes[result.getIndex()], longitudes[result.getIndex()]), 1e-3);
+            }
+        }
+    }
+}
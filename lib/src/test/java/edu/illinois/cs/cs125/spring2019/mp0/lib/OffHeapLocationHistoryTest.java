@@ -0,0 +1,79 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Test suite for the OffHeapLocationHistory class.
+ */
+public class OffHeapLocationHistoryTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testOffHeapLayout() {
+        OffHeapLocationHistory history = new OffHeapLocationHistory(2);
+        history.append(40.0, -88.0);
+        ByteBuffer buffer = history.buffer();
+        Assert.assertEquals(2 * OffHeapLocationHistory.BYTES_PER_SLOT, buffer.capacity());
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(40.0, buffer.getDouble(0), 0.0);
+        Assert.assertEquals(-88.0, buffer.getDouble(2 * Double.BYTES), 0.0);
+        Assert.assertEquals(1, buffer.get(4 * Double.BYTES));
+        Assert.assertEquals(0, buffer.get(4 * Double.BYTES + 1));
+        Assert.assertEquals(Double.doubleToLongBits(40.0) & 0xFF, buffer.get(0) & 0xFF);
+    }
+
+    @Test(timeout=2000)
+    public void testOffHeapMatchesHeap() {
+        for (int run = 0; run < 32; run++) {
+            int capacity = random.nextInt(32) + 1;
+            LocationHistory heap = new LocationHistory(capacity);
+            OffHeapLocationHistory offHeap = new OffHeapLocationHistory(capacity);
+            VisitIndex visitIndex = new VisitIndex(capacity);
+            offHeap.addListener(visitIndex);
+            for (int step = 0; step < 128; step++) {
+                double latitude = random.nextInt(4);
+                double longitude = random.nextInt(4);
+                Assert.assertEquals(heap.append(latitude, longitude), offHeap.append(latitude, longitude));
+                Assert.assertEquals(heap.size(), offHeap.size());
+                Assert.assertEquals(Locator.farthestNorth(heap.latitudes(), heap.longitudes(), heap.validLocations()),
+                    Locator.farthestNorth(offHeap));
+                Assert.assertEquals(Locator.farthestNorth(heap), Locator.farthestNorth(offHeap));
+                for (int i = 0; i < capacity; i++) {
+                    boolean expected = Locator.beenHere(i, heap.latitudes(), heap.longitudes(),
+                        heap.validLocations());
+                    Assert.assertEquals(expected, Locator.beenHere(i, offHeap));
+                    Assert.assertEquals(expected, visitIndex.beenHere(i));
+                }
+                for (int position = 0; position < heap.size(); position++) {
+                    Assert.assertEquals(heap.indexOf(position), offHeap.indexOf(position));
+                }
+            }
+            offHeap.clear();
+            Assert.assertEquals(0, offHeap.size());
+            Assert.assertEquals(-1, Locator.farthestNorth(offHeap));
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testOffHeapRandomWalk() {
+        int capacity = 1 << 20;
+        LocationHistory heap = new LocationHistory(capacity);
+        OffHeapLocationHistory offHeap = new OffHeapLocationHistory(capacity);
+        heap.append(40.0, -88.0);
+        offHeap.append(40.0, -88.0);
+        Locator.nextRandomLocations(heap, capacity + 8, 0.5, 0.001, -0.002, RandomSource.seeded(125));
+        Locator.nextRandomLocations(offHeap, capacity + 8, 0.5, 0.001, -0.002, RandomSource.seeded(125));
+        Assert.assertEquals(capacity, offHeap.size());
+        Assert.assertEquals(heap.currentIndex(), offHeap.currentIndex());
+        for (int i = 0; i < capacity; i++) {
+            Assert.assertEquals(heap.latitude(i), offHeap.latitude(i), 0.0);
+            Assert.assertEquals(heap.longitude(i), offHeap.longitude(i), 0.0);
+        }
+        Assert.assertEquals(Locator.farthestNorth(heap.latitudes(), heap.longitudes(), heap.validLocations()),
+            Locator.farthestNorth(offHeap));
+    }
+}
@@ -0,0 +1,68 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Random;
+
+/**
+ * Finds the array size at which ParallelLocator starts beating the sequential Locator queries.
+ */
+public final class ParallelLocatorBenchmark {
+
+    /** Not instantiable. */
+    private ParallelLocatorBenchmark() { }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(125);
+        ParallelLocator parallel = new ParallelLocator();
+        System.out.printf("%d worker threads, split threshold %d%n",
+            Runtime.getRuntime().availableProcessors(), parallel.getSplitThreshold());
+        System.out.printf("%10s %14s %14s %14s %14s%n", "size",
+            "north seq ns", "north par ns", "been seq ns", "been par ns");
+        int northCrossover = -1;
+        int beenHereCrossover = -1;
+        for (int size = 1 << 10; size <= 1 << 24; size <<= 1) {
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+                longitudes[i] = random.nextDouble() * 360.0 - 180.0;
+                validLocations[i] = random.nextBoolean();
+            }
+            // The last location is unique, so beenHere has to scan everything.
+            int current = size - 1;
+            long northSequential = Benchmark.median(() ->
+                Benchmark.sink += Locator.farthestNorth(latitudes, longitudes, validLocations));
+            long northParallel = Benchmark.median(() ->
+                Benchmark.sink += parallel.farthestNorth(latitudes, longitudes, validLocations));
+            long beenSequential = Benchmark.median(() -> {
+                if (Locator.beenHere(current, latitudes, longitudes, validLocations)) {
+                    Benchmark.sink++;
+                }
+            });
+            long beenParallel = Benchmark.median(() -> {
+                if (parallel.beenHere(current, latitudes, longitudes, validLocations)) {
+                    Benchmark.sink++;
+                }
+            });
+            System.out.printf("%10d %14d %14d %14d %14d%n", size,
+                northSequential, northParallel, beenSequential, beenParallel);
+            // The crossover is the smallest size from which the parallel version keeps winning.
+            if (northParallel >= northSequential) {
+                northCrossover = -1;
+            } else if (northCrossover == -1) {
+                northCrossover = size;
+            }
+            if (beenParallel >= beenSequential) {
+                beenHereCrossover = -1;
+            } else if (beenHereCrossover == -1) {
+                beenHereCrossover = size;
+            }
+        }
+        System.out.printf("farthestNorth crossover: %d%nbeenHere crossover: %d%n", northCrossover, beenHereCrossover);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Differential test suite comparing ParallelLocator against Locator.
+ */
+public class ParallelLocatorTest {
+    private static Random random = new Random();
+
+    @Test(timeout=5000)
+    public void testParallelLocatorRandom() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 256; run++) {
+                ParallelLocator locator = new ParallelLocator(pool, random.nextInt(8) + 1);
+                int size = random.nextInt(128) + 1;
+                double[] latitudes = new double[size];
+                double[] longitudes = new double[size];
+                boolean[] validLocations = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    latitudes[i] = random.nextInt(4);
+                    longitudes[i] = random.nextInt(4);
+                    if (random.nextInt(32) == 0) {
+                        latitudes[i] = Double.NaN;
+                    }
+                    validLocations[i] = random.nextInt(4) != 0;
+                }
+                Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+                    locator.farthestNorth(latitudes, longitudes, validLocations));
+                for (int i = 0; i < size; i++) {
+                    Assert.assertEquals(Locator.beenHere(i, latitudes, longitudes, validLocations),
+                        locator.beenHere(i, latitudes, longitudes, validLocations));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(timeout=5000)
+    public void testParallelLocatorLarge() {
+        ParallelLocator locator = new ParallelLocator();
+        double[] latitudes = new double[1 << 20];
+        double[] longitudes = new double[latitudes.length];
+        boolean[] validLocations = new boolean[latitudes.length];
+        Assert.assertEquals(-1, locator.farthestNorth(latitudes, longitudes, validLocations));
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextInt(1024);
+            longitudes[i] = i;
+            validLocations[i] = random.nextBoolean();
+        }
+        Assert.assertEquals(Locator.farthestNorth(latitudes, longitudes, validLocations),
+            locator.farthestNorth(latitudes, longitudes, validLocations));
+        int last = latitudes.length - 1;
+        Assert.assertFalse(locator.beenHere(last, latitudes, longitudes, validLocations));
+        latitudes[0] = latitudes[last];
+        longitudes[0] = longitudes[last];
+        validLocations[0] = true;
+        Assert.assertTrue(locator.beenHere(last, latitudes, longitudes, validLocations));
+    }
+}
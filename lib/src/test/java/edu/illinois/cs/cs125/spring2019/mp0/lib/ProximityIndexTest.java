@@ -0,0 +1,126 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the ProximityIndex class.
+ */
+public class ProximityIndexTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testHaversine() {
+        Assert.assertEquals(0.0, Haversine.distance(40.0, -88.0, 40.0, -88.0), 0.0);
+        Assert.assertEquals(Haversine.METERS_PER_DEGREE, Haversine.distance(0.0, 0.0, 1.0, 0.0), 1e-6);
+        Assert.assertEquals(Haversine.METERS_PER_DEGREE, Haversine.distance(0.0, 179.5, 0.0, -179.5), 1e-6);
+        Assert.assertEquals(Math.PI * Haversine.EARTH_RADIUS_METERS, Haversine.distance(90.0, 0.0, -90.0, 0.0), 1e-6);
+    }
+
+    @Test(timeout=100)
+    public void testProximityIndexSimple() {
+        ProximityIndex index = new ProximityIndex(4, 10.0);
+        index.update(0, 40.1, -88.2);
+        Assert.assertFalse(index.beenNear(0));
+        index.update(1, 40.1 + 5.0 / Haversine.METERS_PER_DEGREE, -88.2);
+        Assert.assertTrue(index.beenNear(0));
+        Assert.assertTrue(index.beenNear(1));
+        Assert.assertEquals(1, index.findNear(40.1 + 14.0 / Haversine.METERS_PER_DEGREE, -88.2));
+        index.update(1, 40.1 + 11.0 / Haversine.METERS_PER_DEGREE, -88.2);
+        Assert.assertFalse(index.beenNear(0));
+        index.remove(1);
+        Assert.assertEquals(-1, index.findNear(40.1 + 11.0 / Haversine.METERS_PER_DEGREE, -88.2));
+        index.update(2, 0.0, 180.0 - 1e-5);
+        index.update(3, 0.0, -180.0 + 1e-5);
+        Assert.assertTrue(index.beenNear(2));
+        index.update(2, 90.0, 0.0);
+        index.update(3, 90.0, 123.0);
+        Assert.assertTrue(index.beenNear(3));
+        index.update(0, Double.NaN, 0.0);
+        Assert.assertFalse(index.beenNear(0));
+        Assert.assertFalse(index.beenNear(Double.NaN, 0.0));
+        Assert.assertTrue(index.beenNear(89.99999, 45.0));
+        Assert.assertFalse(index.beenNear(-89.99999, 45.0));
+
+        ProximityIndex wide = new ProximityIndex(2, 1e6);
+        wide.update(0, 0.0, 178.0);
+        wide.update(1, 0.0, -178.0);
+        Assert.assertTrue(wide.beenNear(0));
+        Assert.assertTrue(wide.beenNear(1));
+
+        ProximityIndex polar = new ProximityIndex(3, 10.0);
+        double step = 5.0 / Haversine.METERS_PER_DEGREE / Math.cos(Math.toRadians(89.7));
+        polar.update(0, 89.7, 100.0);
+        polar.update(1, 89.7, 100.0 + step);
+        polar.update(2, 89.7, 100.0 + 4 * step);
+        Assert.assertTrue(polar.beenNear(0));
+        Assert.assertFalse(polar.beenNear(2));
+    }
+
+    @Test(timeout=5000)
+    public void testProximityIndexRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(100) + 1;
+            double tolerance = Math.pow(10, random.nextInt(7));
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            ProximityIndex index = new ProximityIndex(size, tolerance);
+            int[] result = new int[size];
+            double centerLatitude = random.nextDouble() * 180.0 - 90.0;
+            double centerLongitude = random.nextDouble() * 360.0 - 180.0;
+            double spread = 4 * tolerance / Haversine.METERS_PER_DEGREE;
+            int current = -1;
+            for (int step = 0; step < 256; step++) {
+                if (random.nextInt(8) == 0) {
+                    int evicted = random.nextInt(size);
+                    validLocations[evicted] = false;
+                    index.remove(evicted);
+                } else {
+                    current = (current + 1) % size;
+                    latitudes[current] = Math.max(-90.0, Math.min(90.0,
+                        centerLatitude + (random.nextDouble() - 0.5) * spread));
+                    longitudes[current] = wrap(centerLongitude + (random.nextDouble() - 0.5) * spread);
+                    validLocations[current] = true;
+                    index.update(current, latitudes[current], longitudes[current]);
+                }
+                for (int i = 0; i < size; i++) {
+                    Assert.assertEquals(bruteForce(i, latitudes, longitudes, validLocations, tolerance),
+                        index.beenNear(i));
+                }
+                int query = random.nextInt(size);
+                int expected = 0;
+                for (int i = 0; i < size; i++) {
+                    if (validLocations[i] && Haversine.distance(latitudes[query], longitudes[query],
+                        latitudes[i], longitudes[i]) <= tolerance) {
+                        expected++;
+                    }
+                }
+                Assert.assertEquals(expected, index.findAllNear(latitudes[query], longitudes[query], result));
+            }
+        }
+    }
+
+    private static boolean bruteForce(final int index, final double[] latitudes, final double[] longitudes,
+                                      final boolean[] validLocations, final double tolerance) {
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i != index && validLocations[i]
+                && Haversine.distance(latitudes[index], longitudes[index], latitudes[i], longitudes[i]) <= tolerance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double wrap(final double longitude) {
+        if (longitude >= 180.0) {
+            return longitude - 360.0;
+        }
+        if (longitude < -180.0) {
+            return longitude + 360.0;
+        }
+        return longitude;
+    }
+}
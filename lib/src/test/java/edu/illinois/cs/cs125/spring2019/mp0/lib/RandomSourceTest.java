@@ -0,0 +1,59 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test suite for the RandomSource implementations.
+ */
+public class RandomSourceTest {
+
+    private static void assertUniform(final RandomSource randomSource) {
+        int below = 0;
+        for (int i = 0; i < 4096; i++) {
+            double value = randomSource.nextDouble();
+            Assert.assertTrue(value >= 0.0 && value < 1.0);
+            if (value < 0.5) {
+                below++;
+            }
+        }
+        Assert.assertEquals(0.5, below / 4096.0, 0.05);
+    }
+
+    @Test(timeout=1000)
+    public void testRandomSourceRange() {
+        assertUniform(RandomSource.threadLocal());
+        assertUniform(RandomSource.splittable(8));
+        assertUniform(RandomSource.seeded(8));
+    }
+
+    @Test(timeout=1000)
+    public void testRandomSourceReproducible() {
+        RandomSource first = RandomSource.seeded(125);
+        RandomSource second = RandomSource.seeded(125);
+        RandomSource third = RandomSource.splittable(125);
+        RandomSource fourth = RandomSource.splittable(125);
+        for (int i = 0; i < 1024; i++) {
+            Assert.assertEquals(first.nextDouble(), second.nextDouble(), 0.0);
+            Assert.assertEquals(third.nextDouble(), fourth.nextDouble(), 0.0);
+        }
+        Assert.assertNotEquals(RandomSource.seeded(1).nextDouble(), RandomSource.seeded(2).nextDouble(), 0.0);
+    }
+
+    @Test(timeout=1000)
+    public void testSeededRandomLocations() {
+        double[] firstLatitudes = new double[1024];
+        double[] firstLongitudes = new double[1024];
+        double[] secondLatitudes = new double[1024];
+        double[] secondLongitudes = new double[1024];
+        Locator.nextRandomLocations(firstLatitudes, firstLongitudes, 0.5, 0.001, -0.002, RandomSource.seeded(8));
+        Locator.nextRandomLocations(secondLatitudes, secondLongitudes, 0.5, 0.001, -0.002, RandomSource.seeded(8));
+        Assert.assertArrayEquals(firstLatitudes, secondLatitudes, 0.0);
+        Assert.assertArrayEquals(firstLongitudes, secondLongitudes, 0.0);
+
+        double[] result = new double[2];
+        Locator.nextRandomLocation(8.0, 7.0, 1.0, 1.0, -1.0, result, RandomSource.seeded(8));
+        Assert.assertEquals(9.0, result[0], 0.0);
+        Assert.assertEquals(6.0, result[1], 0.0);
+    }
+}
@@ -0,0 +1,52 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Random;
+
+/**
+ * Compares RandomWalk against generating the same walk one step at a time the way MainActivity does.
+ */
+public final class RandomWalkBenchmark {
+
+    /** Number of steps in each timed walk. */
+    private static final int STEPS = 1 << 20;
+
+    /** Not instantiable. */
+    private RandomWalkBenchmark() { }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        double[] latitudes = new double[STEPS + 1];
+        double[] longitudes = new double[STEPS + 1];
+        latitudes[0] = 40.092802;
+        longitudes[0] = -88.220097;
+        Random random = new Random(125);
+        long perStep = Benchmark.median(() -> {
+            double latitude = latitudes[0];
+            double longitude = longitudes[0];
+            for (int i = 0; i < STEPS; i++) {
+                double transitionProbability = random.nextDouble();
+                double latitudeChange = (random.nextDouble() * RandomWalk.DEFAULT_MAX_LATITUDE_CHANGE * 2)
+                    - RandomWalk.DEFAULT_MAX_LATITUDE_CHANGE;
+                double longitudeChange = (random.nextDouble() * RandomWalk.DEFAULT_MAX_LONGITUDE_CHANGE * 2)
+                    - RandomWalk.DEFAULT_MAX_LONGITUDE_CHANGE;
+                double[] next = Locator.nextRandomLocation(latitude, longitude, transitionProbability,
+                    latitudeChange, longitudeChange);
+                latitude = next[0];
+                longitude = next[1];
+            }
+            Benchmark.sink += (long) latitude;
+        });
+        RandomWalk seeded = new RandomWalk(RandomSource.seeded(125));
+        long batchSeeded = Benchmark.median(() -> seeded.walk(latitudes, longitudes));
+        RandomWalk splittable = new RandomWalk(RandomSource.splittable(125));
+        long batchSplittable = Benchmark.median(() -> splittable.walk(latitudes, longitudes));
+        System.out.printf("%-34s %14s%n", "generator", "steps/s");
+        System.out.printf("%-34s %,14.0f%n", "per-step, as in MainActivity", STEPS / (perStep / 1e9));
+        System.out.printf("%-34s %,14.0f%n", "RandomWalk, seeded source", STEPS / (batchSeeded / 1e9));
+        System.out.printf("%-34s %,14.0f%n", "RandomWalk, splittable source", STEPS / (batchSplittable / 1e9));
+    }
+}
@@ -0,0 +1,80 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the RandomWalk class.
+ */
+public class RandomWalkTest {
+    private static Random random = new Random();
+
+    @Test(timeout=1000)
+    public void testWalkMatchesNextRandomLocation() {
+        for (int run = 0; run < 32; run++) {
+            long seed = random.nextLong();
+            int length = random.nextInt(1000) + 1;
+            double maxLatitudeChange = random.nextDouble() * 10;
+            double maxLongitudeChange = random.nextDouble() * 10;
+            double[] latitudes = new double[length];
+            double[] longitudes = new double[length];
+            latitudes[0] = random.nextDouble() * 180.0 - 90.0;
+            longitudes[0] = random.nextDouble() * 360.0 - 180.0;
+            double[] expected = new double[] {latitudes[0], longitudes[0]};
+
+            new RandomWalk(maxLatitudeChange, maxLongitudeChange, RandomSource.seeded(seed)).walk(latitudes,
+                longitudes);
+
+            // Replay the walk the way MainActivity.wanderToNewLocation does it, one step at a time.
+            RandomSource source = RandomSource.seeded(seed);
+            for (int i = 1; i < length; i++) {
+                double transitionProbability = source.nextDouble();
+                double latitudeChange = (source.nextDouble() * maxLatitudeChange * 2) - maxLatitudeChange;
+                double longitudeChange = (source.nextDouble() * maxLongitudeChange * 2) - maxLongitudeChange;
+                Locator.nextRandomLocation(expected[0], expected[1], transitionProbability, latitudeChange,
+                    longitudeChange, expected, source);
+                Assert.assertEquals(expected[0], latitudes[i], 0.0);
+                Assert.assertEquals(expected[1], longitudes[i], 0.0);
+                Assert.assertTrue(latitudes[i] >= Locator.MIN_LATITUDE && latitudes[i] <= Locator.MAX_LATITUDE);
+                Assert.assertTrue(longitudes[i] >= Locator.MIN_LONGITUDE && longitudes[i] <= Locator.MAX_LONGITUDE);
+            }
+        }
+    }
+
+    @Test(timeout=1000)
+    public void testAdvanceMatchesWalk() {
+        long seed = random.nextLong();
+        int steps = random.nextInt(1000) + 1;
+        double[] pathLatitudes = new double[steps + 1];
+        double[] pathLongitudes = new double[steps + 1];
+        pathLatitudes[0] = 89.999;
+        pathLongitudes[0] = -179.999;
+        new RandomWalk(RandomSource.seeded(seed)).walk(pathLatitudes, pathLongitudes);
+
+        // Walker 1 advanced one step at a time follows the same path, and its neighbors are left alone.
+        double[] latitudes = {1.0, 89.999, 3.0};
+        double[] longitudes = {1.0, -179.999, 3.0};
+        RandomWalk walk = new RandomWalk(RandomSource.seeded(seed));
+        for (int step = 1; step <= steps; step++) {
+            walk.advance(latitudes, longitudes, 1, 2);
+            Assert.assertEquals(pathLatitudes[step], latitudes[1], 0.0);
+            Assert.assertEquals(pathLongitudes[step], longitudes[1], 0.0);
+        }
+        Assert.assertArrayEquals(new double[] {1.0, 3.0}, new double[] {latitudes[0], latitudes[2]}, 0.0);
+        Assert.assertArrayEquals(new double[] {1.0, 3.0}, new double[] {longitudes[0], longitudes[2]}, 0.0);
+    }
+
+    @Test(timeout=5000)
+    public void testRandomWalkAllocationFree() {
+        RandomWalk walk = new RandomWalk(RandomSource.seeded(125));
+        double[] latitudes = new double[1024];
+        double[] longitudes = new double[1024];
+        long allocated = AllocationMeter.allocatedBytes(() -> {
+            walk.walk(latitudes, longitudes);
+            walk.advance(latitudes, longitudes, 0, latitudes.length);
+        }, 1024);
+        Assert.assertTrue("hot path allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
@@ -0,0 +1,101 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the SamplingScheduler class.
+ */
+public class SamplingSchedulerTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testSamplingSchedulerSimple() {
+        SamplingScheduler scheduler = new SamplingScheduler(1000, 8000, 10.0);
+        Assert.assertEquals(1000, scheduler.getIntervalMillis());
+        Assert.assertFalse(scheduler.append(40.0, -88.0, 0));
+        long time = 0;
+        for (long expected : new long[] {2000, 4000, 8000}) {
+            for (int i = 1; i < SamplingScheduler.STATIONARY_STEPS; i++) {
+                time += scheduler.getIntervalMillis();
+                Assert.assertFalse(scheduler.append(40.0, -88.0, time));
+            }
+            time += scheduler.getIntervalMillis();
+            Assert.assertTrue(scheduler.append(40.00001, -88.0, time));
+            Assert.assertEquals(expected, scheduler.getIntervalMillis());
+        }
+        for (int i = 0; i < SamplingScheduler.STATIONARY_STEPS; i++) {
+            time += scheduler.getIntervalMillis();
+            Assert.assertFalse(scheduler.append(40.0, -88.0, time));
+        }
+        Assert.assertEquals(8000, scheduler.getIntervalMillis());
+
+        Assert.assertFalse(scheduler.append(Double.NaN, -88.0, time + 1000));
+        Assert.assertFalse(scheduler.append(40.0, -88.0, time + 2000));
+        Assert.assertTrue(scheduler.append(40.001, -88.0, time + 3000));
+        Assert.assertEquals(1000, scheduler.getIntervalMillis());
+        Assert.assertTrue(scheduler.getMeanSpeedMetersPerSecond() > 0);
+
+        scheduler.reset();
+        Assert.assertEquals(1000, scheduler.getIntervalMillis());
+        Assert.assertEquals(0.0, scheduler.getMeanSpeedMetersPerSecond(), 0.0);
+        Assert.assertFalse(scheduler.append(0.0, 0.0, 0));
+    }
+
+    @Test(timeout=2000)
+    public void testSamplingSchedulerRandom() {
+        for (int run = 0; run < 32; run++) {
+            long min = random.nextInt(5000) + 1;
+            long max = min + random.nextInt(60000);
+            double tolerance = random.nextDouble() * 50;
+            SamplingScheduler scheduler = new SamplingScheduler(min, max, tolerance);
+            double latitude = 40.0;
+            double longitude = -88.0;
+            long time = 0;
+            double mean = 0;
+            double variance = 0;
+            boolean hasSpeed = false;
+            scheduler.append(latitude, longitude, time);
+            for (int step = 0; step < 500; step++) {
+                double newLatitude = latitude;
+                double newLongitude = longitude;
+                if (random.nextInt(3) > 0) {
+                    newLatitude += (random.nextDouble() - 0.5) * Math.pow(10, -random.nextInt(6));
+                    newLongitude += (random.nextDouble() - 0.5) * Math.pow(10, -random.nextInt(6));
+                }
+                long elapsed = random.nextInt(2) * random.nextInt(10000);
+                time += elapsed;
+                double distance = Haversine.distance(latitude, longitude, newLatitude, newLongitude);
+                if (elapsed > 0) {
+                    double speed = distance / (elapsed / 1000.0);
+                    if (!hasSpeed) {
+                        hasSpeed = true;
+                        mean = speed;
+                    } else {
+                        double difference = speed - mean;
+                        mean += 0.25 * difference;
+                        variance = 0.75 * (variance + difference * 0.25 * difference);
+                    }
+                }
+
+                long before = scheduler.getIntervalMillis();
+                boolean changed = scheduler.append(newLatitude, newLongitude, time);
+                long after = scheduler.getIntervalMillis();
+                Assert.assertEquals(before != after, changed);
+                Assert.assertTrue(after >= min && after <= max);
+                if (distance <= tolerance) {
+                    Assert.assertTrue(after == before || after == Math.min(before * 2, max));
+                } else {
+                    Assert.assertTrue(after <= before);
+                }
+                Assert.assertEquals(mean, scheduler.getMeanSpeedMetersPerSecond(), 1e-6 * (1 + mean));
+                Assert.assertEquals(Math.sqrt(variance), scheduler.getSpeedDeviationMetersPerSecond(),
+                    1e-6 * (1 + mean));
+                latitude = newLatitude;
+                longitude = newLongitude;
+            }
+        }
+    }
+}
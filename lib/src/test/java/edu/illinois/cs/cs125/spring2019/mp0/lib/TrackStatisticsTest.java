@@ -0,0 +1,88 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the TrackStatistics class.
+ */
+public class TrackStatisticsTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testTrackStatisticsSimple() {
+        TrackStatistics statistics = new TrackStatistics(3);
+        Assert.assertEquals(0.0, statistics.getTotalDistanceMeters(), 0.0);
+        Assert.assertTrue(Double.isNaN(statistics.getNorth()));
+        statistics.append(0.0, 0.0, 0);
+        statistics.append(1.0, 0.0, 10000);
+        Assert.assertEquals(Haversine.METERS_PER_DEGREE, statistics.getTotalDistanceMeters(), 1e-6);
+        Assert.assertEquals(Haversine.METERS_PER_DEGREE / 10, statistics.getAverageSpeedMetersPerSecond(), 1e-6);
+        statistics.append(1.0, 2.0, 20000);
+        Assert.assertEquals(2 * Haversine.METERS_PER_DEGREE * Math.cos(Math.toRadians(1.0)),
+            statistics.getMaxStepMeters(), 10.0);
+        Assert.assertEquals(0.0, statistics.getSouth(), 0.0);
+        Assert.assertEquals(1.0, statistics.getNorth(), 0.0);
+        Assert.assertEquals(0.0, statistics.getWest(), 0.0);
+        Assert.assertEquals(2.0, statistics.getEast(), 0.0);
+        statistics.append(1.0, 2.0, 30000);
+        Assert.assertEquals(3, statistics.size());
+        Assert.assertEquals(1.0, statistics.getSouth(), 0.0);
+        Assert.assertEquals(Haversine.distance(1.0, 0.0, 1.0, 2.0), statistics.getTotalDistanceMeters(), 1e-6);
+        Assert.assertEquals(20000, statistics.getDurationMillis());
+        statistics.append(Double.NaN, 5.0, 40000);
+        Assert.assertEquals(0.0, statistics.getTotalDistanceMeters(), 1e-6);
+        Assert.assertEquals(2.0, statistics.getEast(), 0.0);
+        statistics.clear();
+        Assert.assertEquals(0, statistics.size());
+        Assert.assertEquals(0.0, statistics.getMaxStepMeters(), 0.0);
+    }
+
+    @Test(timeout=2000)
+    public void testTrackStatisticsRandom() {
+        for (int run = 0; run < 32; run++) {
+            int capacity = random.nextInt(50) + 1;
+            int steps = random.nextInt(500);
+            double[] latitudes = new double[steps];
+            double[] longitudes = new double[steps];
+            long[] times = new long[steps];
+            TrackStatistics statistics = new TrackStatistics(capacity);
+            long time = 0;
+            for (int step = 0; step < steps; step++) {
+                latitudes[step] = random.nextDouble() * 180.0 - 90.0;
+                longitudes[step] = random.nextDouble() * 360.0 - 180.0;
+                time += random.nextInt(10000);
+                times[step] = time;
+                statistics.append(latitudes[step], longitudes[step], time);
+
+                int from = Math.max(0, step - capacity + 1);
+                double total = 0;
+                double maxStep = 0;
+                double south = latitudes[from];
+                double north = latitudes[from];
+                double west = longitudes[from];
+                double east = longitudes[from];
+                for (int i = from + 1; i <= step; i++) {
+                    double distance = Haversine.distance(latitudes[i - 1], longitudes[i - 1],
+                        latitudes[i], longitudes[i]);
+                    total += distance;
+                    maxStep = Math.max(maxStep, distance);
+                    south = Math.min(south, latitudes[i]);
+                    north = Math.max(north, latitudes[i]);
+                    west = Math.min(west, longitudes[i]);
+                    east = Math.max(east, longitudes[i]);
+                }
+                Assert.assertEquals(step - from + 1, statistics.size());
+                Assert.assertEquals(total, statistics.getTotalDistanceMeters(), 1e-3);
+                Assert.assertEquals(maxStep, statistics.getMaxStepMeters(), 0.0);
+                Assert.assertEquals(south, statistics.getSouth(), 0.0);
+                Assert.assertEquals(north, statistics.getNorth(), 0.0);
+                Assert.assertEquals(west, statistics.getWest(), 0.0);
+                Assert.assertEquals(east, statistics.getEast(), 0.0);
+                Assert.assertEquals(times[step] - times[from], statistics.getDurationMillis());
+            }
+        }
+    }
+}
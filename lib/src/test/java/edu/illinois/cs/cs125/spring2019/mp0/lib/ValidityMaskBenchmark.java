@@ -0,0 +1,48 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.Random;
+
+/**
+ * Compares the boolean array and packed mask versions of the Locator scans on sparse and dense masks.
+ */
+public final class ValidityMaskBenchmark {
+
+    /** Not instantiable. */
+    private ValidityMaskBenchmark() { }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        Random random = new Random(125);
+        System.out.printf("%10s %8s %16s %16s %16s %16s%n", "size", "valid",
+            "north bool ns", "north mask ns", "repeat bool ns", "repeat mask ns");
+        for (int size : new int[] {720, 1 << 16, 1 << 22}) {
+            for (double density : new double[] {0.001, 0.01, 0.1, 0.5, 1.0}) {
+                double[] latitudes = new double[size];
+                double[] longitudes = new double[size];
+                boolean[] validLocations = new boolean[size];
+                // Valid locations are kept together at the start, like the app's buffer while it is filling up.
+                int valid = Math.max(1, (int) (size * density));
+                for (int i = 0; i < size; i++) {
+                    latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+                    longitudes[i] = random.nextDouble() * 360.0 - 180.0;
+                    validLocations[i] = i < valid;
+                }
+                long[] validMask = ValidityMask.pack(validLocations);
+                long northBoolean = Benchmark.median(() ->
+                    Benchmark.sink += Locator.farthestNorth(latitudes, longitudes, validLocations));
+                long northMask = Benchmark.median(() ->
+                    Benchmark.sink += Locator.farthestNorth(latitudes, longitudes, validMask));
+                long repeatedBoolean = Benchmark.median(() ->
+                    Benchmark.sink += Locator.repeatedLocations(latitudes, longitudes, validLocations).length);
+                long repeatedMask = Benchmark.median(() ->
+                    Benchmark.sink += Locator.repeatedLocations(latitudes, longitudes, validMask).length);
+                System.out.printf("%10d %7.1f%% %16d %16d %16d %16d%n", size, density * 100,
+                    northBoolean, northMask, repeatedBoolean, repeatedMask);
+            }
+        }
+    }
+}
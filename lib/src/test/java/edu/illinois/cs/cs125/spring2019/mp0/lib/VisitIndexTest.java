@@ -0,0 +1,82 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test suite for the VisitIndex class.
+ */
+public class VisitIndexTest {
+    private static Random random = new Random();
+
+    @Test(timeout=100)
+    public void testVisitIndexSimple() {
+        VisitIndex index = new VisitIndex(3);
+        index.update(0, 8.0, 8.0);
+        Assert.assertFalse(index.beenHere(0));
+        Assert.assertEquals(1, index.count(8.0, 8.0));
+        index.update(1, 8.0, 8.0);
+        Assert.assertTrue(index.beenHere(0));
+        Assert.assertTrue(index.beenHere(1));
+        index.update(1, 7.0, 8.0);
+        Assert.assertFalse(index.beenHere(0));
+        Assert.assertFalse(index.beenHere(1));
+        index.update(2, -0.0, 0.0);
+        index.update(0, 0.0, -0.0);
+        Assert.assertTrue(index.beenHere(2));
+        index.update(0, Double.NaN, 1.0);
+        index.update(2, Double.NaN, 1.0);
+        Assert.assertFalse(index.beenHere(0));
+        Assert.assertEquals(0, index.count(Double.NaN, 1.0));
+        index.update(0, 7.0, 8.0);
+        index.remove(0);
+        Assert.assertFalse(index.beenHere(1));
+        Assert.assertTrue(index.beenHere(0));
+    }
+
+    @Test(timeout=2000)
+    public void testVisitIndexRandom() {
+        for (int run = 0; run < 32; run++) {
+            int size = random.nextInt(100) + 1;
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            boolean[] validLocations = new boolean[size];
+            VisitIndex index = new VisitIndex(size);
+            int current = -1;
+            for (int step = 0; step < 512; step++) {
+                if (random.nextInt(8) == 0) {
+                    int evicted = random.nextInt(size);
+                    validLocations[evicted] = false;
+                    index.remove(evicted);
+                } else {
+                    current = (current + 1) % size;
+                    latitudes[current] = randomCoordinate();
+                    longitudes[current] = randomCoordinate();
+                    validLocations[current] = true;
+                    index.update(current, latitudes[current], longitudes[current]);
+                }
+                for (int i = 0; i < size; i++) {
+                    Assert.assertEquals(Locator.beenHere(i, latitudes, longitudes, validLocations),
+                        index.beenHere(i));
+                }
+            }
+            VisitIndex rebuilt = VisitIndex.of(latitudes, longitudes, validLocations);
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(index.beenHere(i), rebuilt.beenHere(i));
+            }
+        }
+    }
+
+    private static double randomCoordinate() {
+        switch (random.nextInt(16)) {
+            case 0:
+                return -0.0;
+            case 1:
+                return Double.NaN;
+            default:
+                return random.nextInt(4);
+        }
+    }
+}
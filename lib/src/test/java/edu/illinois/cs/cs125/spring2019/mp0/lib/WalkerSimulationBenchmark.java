@@ -0,0 +1,46 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures WalkerSimulation throughput for different numbers of walkers, on one thread and on every core.
+ */
+public final class WalkerSimulationBenchmark {
+
+    /** Number of ticks timed at each size. */
+    private static final int TICKS = 20;
+
+    /** Not instantiable. */
+    private WalkerSimulationBenchmark() { }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(final String[] args) {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool all = ForkJoinPool.commonPool();
+        System.out.printf("%10s %22s %22s%n", "walkers", "1 thread steps/s",
+            all.getParallelism() + " threads steps/s");
+        for (int walkers = 1000; walkers <= 4000000; walkers *= 4) {
+            System.out.printf("%10d %,22.0f %,22.0f%n", walkers, throughput(walkers, single),
+                throughput(walkers, all));
+        }
+        single.shutdown();
+    }
+
+    /**
+     * Measure the throughput of one simulation.
+     *
+     * @param walkers the number of walkers
+     * @param pool the pool to run on
+     * @return the median steps per second across rounds
+     */
+    private static double throughput(final int walkers, final ForkJoinPool pool) {
+        WalkerSimulation simulation = new WalkerSimulation(walkers, 40.092802, -88.220097, 125, pool,
+            WalkerSimulation.DEFAULT_CHUNK_SIZE);
+        long nanos = Benchmark.median(() -> simulation.run(TICKS));
+        return (double) walkers * TICKS / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,61 @@
+package edu.illinois.cs.cs125.spring2019.mp0.lib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test suite for the WalkerSimulation class.
+ */
+public class WalkerSimulationTest {
+    private static Random random = new Random();
+
+    @Test(timeout=5000)
+    public void testWalkerSimulationIsDeterministic() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 8; run++) {
+                long seed = random.nextLong();
+                int walkers = random.nextInt(10000);
+                int chunkSize = random.nextInt(1000) + 1;
+                int ticks = random.nextInt(20) + 1;
+                WalkerSimulation first = new WalkerSimulation(walkers, 40.0, -88.0, seed, single, chunkSize);
+                WalkerSimulation second = new WalkerSimulation(walkers, 40.0, -88.0, seed, several, chunkSize);
+                first.run(ticks);
+                second.run(ticks);
+                Assert.assertEquals(ticks, first.getTick());
+                Assert.assertEquals((long) ticks * walkers, second.getTotalSteps());
+                Assert.assertArrayEquals(first.latitudes(), second.latitudes(), 0.0);
+                Assert.assertArrayEquals(first.longitudes(), second.longitudes(), 0.0);
+                for (int i = 0; i < walkers; i++) {
+                    Assert.assertEquals(40.0, first.latitude(i), ticks * RandomWalk.DEFAULT_MAX_LATITUDE_CHANGE);
+                    Assert.assertEquals(-88.0, first.longitude(i), ticks * RandomWalk.DEFAULT_MAX_LONGITUDE_CHANGE);
+                }
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test(timeout=1000)
+    public void testWalkerSimulationWalkersAreIndependent() {
+        WalkerSimulation simulation = new WalkerSimulation(1000, 0.0, 0.0, 125, ForkJoinPool.commonPool(), 10);
+        simulation.run(10);
+        int distinct = 0;
+        for (int i = 1; i < simulation.size(); i++) {
+            if (simulation.latitude(i) != simulation.latitude(i - 1)) {
+                distinct++;
+            }
+        }
+        // Walkers in different chunks, and different walkers in the same chunk, must not move in lockstep.
+        Assert.assertTrue(distinct > simulation.size() / 2);
+        WalkerSimulation reseeded = new WalkerSimulation(1000, 0.0, 0.0, 126, ForkJoinPool.commonPool(), 10);
+        reseeded.run(10);
+        Assert.assertNotEquals(simulation.latitude(0), reseeded.latitude(0), 0.0);
+        Assert.assertTrue(simulation.getStepsPerSecond() > 0);
+    }
+}